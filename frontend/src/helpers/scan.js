@@ -12,8 +12,12 @@ export const STATES = {
 
 // This var is set to true when the client closes the socket. It is reinitialized to false when a new socket is created.
 var socketWasManuallyClosed = false;
+// Number of attempts to resume following a scan after the connection was lost
+const MAX_RESUME_ATTEMPTS = 5;
+const RESUME_DELAY_MS = 2000;
+var resumeAttempts = 0;
 
-function startWebSocket(socketURL) {
+function startWebSocket(socketURL, onOpen) {
   // Check if WebSocket is already open
   if (
     model.scanning.socket &&
@@ -32,7 +36,7 @@ function startWebSocket(socketURL) {
   // WebSocket event listeners
   model.scanning.socket.addEventListener("open", () => {
     console.log("WebSocket connection opened.");
-    scan();
+    onOpen();
   });
 
   model.scanning.socket.addEventListener("message", (event) => {
@@ -43,6 +47,19 @@ function startWebSocket(socketURL) {
 
   model.scanning.socket.addEventListener("close", (event) => {
     console.log("WebSocket connection closed.", event);
+    if (canResume()) {
+      resumeAttempts++;
+      setTimeout(resumeScan, RESUME_DELAY_MS);
+    } else if (
+      !socketWasManuallyClosed &&
+      model.scanning.isScanning &&
+      model.scanning.scanId !== null
+    ) {
+      // the connection was lost for good
+      model.addError(ErrorStatus.NoConnection);
+      model.scanning.scanningStatus = STATES.ERROR;
+      model.scanning.isScanning = false;
+    }
   });
 
   model.scanning.socket.addEventListener("error", (error) => {
@@ -52,6 +69,10 @@ function startWebSocket(socketURL) {
       console.warn(
         "The connection was closed by the client. An connection error occurred, but has NOT been notified in the UI."
       );
+    } else if (model.scanning.isScanning && model.scanning.scanId !== null) {
+      // The scan keeps running on the server, the progress is resumed (or the error is
+      // displayed) once the socket is closed
+      console.warn("WebSocket error:", error);
     } else {
       console.error("WebSocket error:", error);
       model.addError(ErrorStatus.NoConnection);
@@ -59,6 +80,28 @@ function startWebSocket(socketURL) {
   });
 }
 
+// The progress of a running scan can be followed again if the connection was lost unexpectedly
+function canResume() {
+  return (
+    !socketWasManuallyClosed &&
+    model.scanning.isScanning &&
+    model.scanning.scanId !== null &&
+    resumeAttempts < MAX_RESUME_ATTEMPTS
+  );
+}
+
+// Reconnects to the progress of the scan, starting after the last message received
+function resumeScan() {
+  if (!model.scanning.isScanning || model.scanning.scanId === null) {
+    return;
+  }
+  let fromSequence =
+    model.scanning.lastSequence === null ? 0 : model.scanning.lastSequence + 1;
+  let socketURL = `${API_SCAN_URL}/${model.scanning.scanId}/progress?from=${fromSequence}`;
+  console.log("Resuming the scan from message", fromSequence);
+  startWebSocket(socketURL, () => {});
+}
+
 export function stopWebSocket() {
   // Check if WebSocket is not null and is open
   if (
@@ -80,7 +123,8 @@ export function connectAndScan(gitBranch, gitSubfolder, credentials) {
   setCredentials(credentials)
   let clientId = uuid4();
   let socketURL = `${API_SCAN_URL}/${clientId}`;
-  startWebSocket(socketURL);
+  resumeAttempts = 0;
+  startWebSocket(socketURL, scan);
 }
 
 function scan() {
@@ -122,7 +166,14 @@ function scan() {
 function handleMessage(messageJson) {
   let obj = JSON.parse(messageJson);
   // console.log(obj)
-  if (obj["type"] === "LABEL") {
+  if (obj["sequence"] !== undefined) {
+    // position of the message in the progress of the scan, used to resume after a reconnect
+    model.scanning.lastSequence = obj["sequence"];
+    resumeAttempts = 0;
+  }
+  if (obj["type"] === "SCAN_ID") {
+    model.scanning.scanId = obj["message"];
+  } else if (obj["type"] === "LABEL") {
     model.scanning.scanningStatusMessage = obj["message"];
     if (obj["message"] === "Starting...") {
       model.scanning.startTime = new Date();
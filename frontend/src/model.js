@@ -19,6 +19,8 @@ export const model = reactive({
     startTime: null,
     scanDuration: null,
     totalDuration: null,
+    scanId: null,
+    lastSequence: null,
   },
   codeOrigin: {
     projectIdentifier: null,
@@ -57,6 +59,8 @@ export const model = reactive({
     model.scanning.startTime = null;
     model.scanning.scanDuration = null;
     model.scanning.totalDuration = null;
+    model.scanning.scanId = null;
+    model.scanning.lastSequence = null;
     model.codeOrigin.commitID = null;
     model.cbom = null;
     model.dependencies = null;
@@ -20,7 +20,52 @@
 package com.ibm.domain.scanning;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.function.Supplier;
 import org.pqca.scanning.CBOM;
 
-public record LanguageScan(
-        @Nonnull Language language, @Nonnull ScanMetadata scanMetadata, @Nonnull CBOM cbom) {}
+public final class LanguageScan {
+    @Nonnull private final Language language;
+    @Nonnull private final ScanMetadata scanMetadata;
+    @Nullable private Supplier<CBOM> cbomLoader;
+    @Nullable private CBOM cbom;
+
+    public LanguageScan(
+            @Nonnull Language language, @Nonnull ScanMetadata scanMetadata, @Nonnull CBOM cbom) {
+        this.language = language;
+        this.scanMetadata = scanMetadata;
+        this.cbom = cbom;
+    }
+
+    /**
+     * Creates a language scan whose CBOM is loaded on first access, e.g. when the scan is restored
+     * from a data source. The loader is called at most once.
+     */
+    public LanguageScan(
+            @Nonnull Language language,
+            @Nonnull ScanMetadata scanMetadata,
+            @Nonnull Supplier<CBOM> cbomLoader) {
+        this.language = language;
+        this.scanMetadata = scanMetadata;
+        this.cbomLoader = cbomLoader;
+    }
+
+    @Nonnull
+    public Language language() {
+        return language;
+    }
+
+    @Nonnull
+    public ScanMetadata scanMetadata() {
+        return scanMetadata;
+    }
+
+    @Nonnull
+    public synchronized CBOM cbom() {
+        if (this.cbom == null) {
+            this.cbom = this.cbomLoader.get();
+            this.cbomLoader = null;
+        }
+        return this.cbom;
+    }
+}
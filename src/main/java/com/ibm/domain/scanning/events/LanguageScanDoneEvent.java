@@ -25,7 +25,7 @@ import com.ibm.domain.scanning.ScanAggregate;
 import com.ibm.domain.scanning.ScanId;
 import jakarta.annotation.Nonnull;
 
-public final class LanguageScanDoneEvent extends DomainEvent {
+public final class LanguageScanDoneEvent extends DomainEvent implements IScanEvent {
     @Nonnull private final Language language;
 
     public LanguageScanDoneEvent(@Nonnull ScanId scanId, @Nonnull Language language) {
@@ -34,6 +34,7 @@ public final class LanguageScanDoneEvent extends DomainEvent {
     }
 
     @Nonnull
+    @Override
     public ScanId getScanId() {
         return (ScanId) this.aggregateId;
     }
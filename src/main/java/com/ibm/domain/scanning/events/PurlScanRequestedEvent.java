@@ -27,7 +27,7 @@ import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.util.Optional;
 
-public final class PurlScanRequestedEvent extends DomainEvent {
+public final class PurlScanRequestedEvent extends DomainEvent implements IScanEvent {
     @Nullable private final ICredentials credentials;
 
     public PurlScanRequestedEvent(@Nonnull ScanId scanId, @Nullable ICredentials credentials) {
@@ -36,6 +36,7 @@ public final class PurlScanRequestedEvent extends DomainEvent {
     }
 
     @Nonnull
+    @Override
     public ScanId getScanId() {
         return (ScanId) this.aggregateId;
     }
@@ -24,13 +24,14 @@ import com.ibm.domain.scanning.ScanAggregate;
 import com.ibm.domain.scanning.ScanId;
 import jakarta.annotation.Nonnull;
 
-public final class RevisionIdentifiedEvent extends DomainEvent {
+public final class RevisionIdentifiedEvent extends DomainEvent implements IScanEvent {
 
     public RevisionIdentifiedEvent(@Nonnull ScanId scanId) {
         super(scanId, ScanAggregate.class, null);
     }
 
     @Nonnull
+    @Override
     public ScanId getScanId() {
         return (ScanId) this.aggregateId;
     }
@@ -24,13 +24,14 @@ import com.ibm.domain.scanning.ScanAggregate;
 import com.ibm.domain.scanning.ScanId;
 import jakarta.annotation.Nonnull;
 
-public final class ScanFinishedEvent extends DomainEvent {
+public final class ScanFinishedEvent extends DomainEvent implements IScanEvent {
 
     public ScanFinishedEvent(@Nonnull ScanId scanId) {
         super(scanId, ScanAggregate.class, null);
     }
 
     @Nonnull
+    @Override
     public ScanId getScanId() {
         return (ScanId) this.aggregateId;
     }
@@ -27,7 +27,7 @@ import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.util.Optional;
 
-public final class ScanRequestedEvent extends DomainEvent {
+public final class ScanRequestedEvent extends DomainEvent implements IScanEvent {
     @Nullable private final ICredentials credentials;
 
     public ScanRequestedEvent(@Nonnull ScanId scanId, @Nullable ICredentials credentials) {
@@ -36,6 +36,7 @@ public final class ScanRequestedEvent extends DomainEvent {
     }
 
     @Nonnull
+    @Override
     public ScanId getScanId() {
         return (ScanId) this.aggregateId;
     }
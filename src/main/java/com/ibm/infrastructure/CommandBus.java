@@ -22,14 +22,24 @@ package com.ibm.infrastructure;
 import app.bootstrap.core.cqrs.ICommand;
 import app.bootstrap.core.cqrs.ICommandBus;
 import app.bootstrap.core.cqrs.ICommandHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Singleton;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,11 +51,57 @@ public final class CommandBus implements ICommandBus {
     @Nonnull
     private final Map<Class<? extends ICommand>, List<ICommandHandler>> handlers;
 
-    private final ExecutorService executorService;
+    @Nonnull private final ThreadPoolExecutor executorService;
+    // follow-up commands of running scans are never rejected, they run here if the bounded
+    // executor is saturated. Their number is bounded by the number of running scans.
+    @Nonnull private final ExecutorService overflowExecutorService;
+    @Nonnull private final MeterRegistry meterRegistry;
+    @Nonnull private final AtomicInteger inFlight;
+    @Nonnull private final Counter rejected;
+    @Nonnull private final Counter overflowed;
 
-    public CommandBus() {
+    public CommandBus(
+            @Nonnull IDispatchConfiguration configuration, @Nonnull MeterRegistry meterRegistry) {
         this.handlers = new ConcurrentHashMap<>();
-        this.executorService = Executors.newCachedThreadPool();
+        this.meterRegistry = meterRegistry;
+        this.inFlight = new AtomicInteger();
+        // handlers are mostly waiting for I/O (git, database, websocket), therefore they run on
+        // virtual threads. Concurrency and queue are bounded to push back on request bursts.
+        final int maxConcurrency = configuration.getCommandBusMaxConcurrency();
+        this.executorService =
+                new ThreadPoolExecutor(
+                        maxConcurrency,
+                        maxConcurrency,
+                        60L,
+                        TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(configuration.getCommandBusQueueCapacity()),
+                        Thread.ofVirtual().name("command-bus-", 0).factory(),
+                        new ThreadPoolExecutor.AbortPolicy());
+        this.executorService.allowCoreThreadTimeOut(true);
+        this.overflowExecutorService =
+                Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("command-bus-overflow-", 0).factory());
+
+        Gauge.builder("cbomkit.command.bus.queue.depth", executorService, e -> e.getQueue().size())
+                .description("Number of commands waiting for execution")
+                .register(meterRegistry);
+        Gauge.builder("cbomkit.command.bus.in.flight", inFlight, AtomicInteger::get)
+                .description("Number of commands currently handled")
+                .register(meterRegistry);
+        this.rejected =
+                Counter.builder("cbomkit.command.bus.rejected")
+                        .description("Number of commands rejected because the queue was full")
+                        .register(meterRegistry);
+        this.overflowed =
+                Counter.builder("cbomkit.command.bus.overflowed")
+                        .description("Number of follow-up commands run beside the full queue")
+                        .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.executorService.shutdown();
+        this.overflowExecutorService.shutdown();
     }
 
     @Override
@@ -90,14 +146,56 @@ public final class CommandBus implements ICommandBus {
         }
     }
 
+    /**
+     * Dispatches the command asynchronously. The command is never rejected: it is a follow-up of
+     * work that was already admitted, so it runs beside the queue if the queue is full.
+     */
     @Nonnull
     @Override
     public CompletableFuture<Boolean> send(@Nonnull ICommand command) throws Exception {
         final CompletableFuture<Boolean> completableFuture = new CompletableFuture<>();
-        this.executorService.submit(() -> completableFuture.complete(sendSync(command)));
+        final Runnable task = toTask(command, completableFuture);
+        try {
+            this.executorService.execute(task);
+        } catch (RejectedExecutionException e) {
+            this.overflowed.increment();
+            this.overflowExecutorService.execute(task);
+        }
+        return completableFuture;
+    }
+
+    /**
+     * Dispatches a command submitted by a client asynchronously. New work is only admitted while
+     * the queue has capacity, the caller pushes back on the client otherwise.
+     *
+     * @throws RejectedExecutionException if the maximum number of waiting commands is reached.
+     */
+    @Nonnull
+    public CompletableFuture<Boolean> trySend(@Nonnull ICommand command) {
+        final CompletableFuture<Boolean> completableFuture = new CompletableFuture<>();
+        try {
+            this.executorService.execute(toTask(command, completableFuture));
+        } catch (RejectedExecutionException e) {
+            this.rejected.increment();
+            LOGGER.warn("Rejected command {}, command bus is saturated", command);
+            throw e;
+        }
         return completableFuture;
     }
 
+    @Nonnull
+    private Runnable toTask(
+            @Nonnull ICommand command, @Nonnull CompletableFuture<Boolean> completableFuture) {
+        return () -> {
+            try {
+                completableFuture.complete(sendSync(command));
+            } catch (Exception e) {
+                LOGGER.error(e.getMessage());
+                completableFuture.completeExceptionally(e);
+            }
+        };
+    }
+
     @Nonnull
     private Boolean executeCommand(
             @Nonnull List<ICommandHandler> handlers, @Nonnull ICommand command) {
@@ -125,6 +223,17 @@ public final class CommandBus implements ICommandBus {
             return false;
         }
 
-        return executeCommand(handlersForCommand, command);
+        final Timer.Sample sample = Timer.start(this.meterRegistry);
+        this.inFlight.incrementAndGet();
+        try {
+            return executeCommand(handlersForCommand, command);
+        } finally {
+            this.inFlight.decrementAndGet();
+            sample.stop(
+                    Timer.builder("cbomkit.command.bus.handler.duration")
+                            .description("Time spent in the handlers of a command")
+                            .tag("command", command.getClass().getSimpleName())
+                            .register(this.meterRegistry));
+        }
     }
 }
@@ -19,22 +19,87 @@
  */
 package com.ibm.infrastructure;
 
+import com.ibm.domain.scanning.Language;
 import com.ibm.infrastructure.compliance.IComplianceConfiguration;
 import com.ibm.infrastructure.compliance.service.BasicQuantumSafeComplianceService;
 import com.ibm.infrastructure.compliance.service.IComplianceService;
+import com.ibm.infrastructure.compliance.service.QuantumSafeWhitelist;
+import com.ibm.infrastructure.database.IDatabaseConfiguration;
+import com.ibm.infrastructure.database.codec.CBOMCodec;
 import com.ibm.infrastructure.scanning.IScanConfiguration;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.io.File;
+import java.time.Duration;
+import java.util.Optional;
+import org.eclipse.microprofile.config.Config;
 import org.eclipse.microprofile.config.ConfigProvider;
+import org.pqca.scanning.CBOM;
 
 @ApplicationScoped
-public final class Configuration implements IScanConfiguration, IComplianceConfiguration {
+public final class Configuration
+        implements IScanConfiguration,
+                IComplianceConfiguration,
+                IDispatchConfiguration,
+                IDatabaseConfiguration {
+    // the compliance rules are compiled once
+    @Nullable private volatile IComplianceService complianceService;
 
     @Nonnull
     @Override
     public IComplianceService getComplianceService() {
-        return new BasicQuantumSafeComplianceService();
+        IComplianceService service = this.complianceService;
+        if (service == null) {
+            synchronized (this) {
+                service = this.complianceService;
+                if (service == null) {
+                    final String whitelistPath =
+                            ConfigProvider.getConfig()
+                                    .getOptionalValue(
+                                            "cbomkit.compliance.quantum-safe-whitelist",
+                                            String.class)
+                                    .orElse(null);
+                    service =
+                            new BasicQuantumSafeComplianceService(
+                                    QuantumSafeWhitelist.load(whitelistPath));
+                    this.complianceService = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    @Nonnull
+    @Override
+    public String getDefaultPolicyIdentifier() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.compliance.default-policy", String.class)
+                .orElse("quantum_safe");
+    }
+
+    @Override
+    public long getComplianceResultCacheMaxEntries() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.compliance.result-cache.max-entries", Long.class)
+                .filter(maxEntries -> maxEntries >= 0)
+                .orElse(10000L);
+    }
+
+    @Override
+    public int getBatchComplianceParallelism() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.compliance.batch.parallelism", Integer.class)
+                .filter(parallelism -> parallelism > 0)
+                .orElse(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public int getBatchComplianceMaxProjects() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.compliance.batch.max-projects", Integer.class)
+                .filter(maxProjects -> maxProjects > 0)
+                .orElse(10000);
     }
 
     @Nonnull
@@ -56,4 +121,201 @@ public final class Configuration implements IScanConfiguration, IComplianceConfi
                                 new IllegalStateException(
                                         "Could not load jar dependencies for java scanning")); // Error
     }
+
+    @Override
+    public int getLanguageScanParallelism() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.scanning.language-parallelism", Integer.class)
+                .filter(parallelism -> parallelism > 0)
+                .orElse(Language.values().length);
+    }
+
+    @Nonnull
+    @Override
+    public String getGitMirrorDirPath() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.git-mirror.dir", String.class)
+                .orElse(getBaseCloneDirPath() + File.separator + "mirrors");
+    }
+
+    @Override
+    public long getGitMirrorCacheMaxBytes() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.git-mirror.max-size-mb", Long.class)
+                .filter(maxSize -> maxSize >= 0)
+                .map(maxSize -> maxSize * 1024 * 1024)
+                .orElse(0L);
+    }
+
+    @Override
+    public boolean isShallowCloneEnabled() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.git.shallow-clone", Boolean.class)
+                .orElse(false);
+    }
+
+    @Nonnull
+    @Override
+    public String getScannerVersion() {
+        final Config config = ConfigProvider.getConfig();
+        return config.getOptionalValue("cbomkit.scanning.scanner-version", String.class)
+                .or(() -> Optional.ofNullable(CBOM.class.getPackage().getImplementationVersion()))
+                .or(() -> config.getOptionalValue("quarkus.application.version", String.class))
+                .orElse("unknown");
+    }
+
+    @Override
+    public boolean isIncrementalScanEnabled() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.scanning.incremental", Boolean.class)
+                .orElse(false);
+    }
+
+    @Override
+    public int getMaxConcurrentScans() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.scanning.max-concurrent-scans", Integer.class)
+                .filter(maxScans -> maxScans > 0)
+                .orElse(4);
+    }
+
+    @Override
+    public int getScanQueueCapacity() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.scanning.queue-capacity", Integer.class)
+                .filter(capacity -> capacity >= 0)
+                .orElse(100);
+    }
+
+    @Nonnull
+    @Override
+    public Duration getScanStallTimeout() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.scanning.stall-timeout", Duration.class)
+                .orElse(Duration.ofMinutes(10));
+    }
+
+    @Override
+    public int getCommandBusMaxConcurrency() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.command-bus.max-concurrency", Integer.class)
+                .filter(maxConcurrency -> maxConcurrency > 0)
+                .orElse(64);
+    }
+
+    @Override
+    public int getCommandBusQueueCapacity() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.command-bus.queue-capacity", Integer.class)
+                .filter(capacity -> capacity > 0)
+                .orElse(1000);
+    }
+
+    @Override
+    public boolean isDomainEventBusAsync() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.domain-event-bus.async", Boolean.class)
+                .orElse(false);
+    }
+
+    @Nonnull
+    @Override
+    public Duration getQueryTimeout(@Nonnull Class<?> queryType) {
+        final Config config = ConfigProvider.getConfig();
+        return config.getOptionalValue(
+                        "cbomkit.query-bus.timeout." + queryType.getSimpleName(), Duration.class)
+                .or(() -> config.getOptionalValue("cbomkit.query-bus.timeout", Duration.class))
+                .orElse(Duration.ofSeconds(30));
+    }
+
+    @Override
+    public int getProgressJournalMaxEntries() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.progress-journal.max-messages", Integer.class)
+                .filter(maxEntries -> maxEntries > 0)
+                .orElse(1000);
+    }
+
+    @Override
+    public int getProgressJournalMaxScans() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.progress-journal.max-scans", Integer.class)
+                .filter(maxScans -> maxScans > 0)
+                .orElse(500);
+    }
+
+    @Nonnull
+    @Override
+    public Duration getProgressJournalRetention() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.progress-journal.retention", Duration.class)
+                .orElse(Duration.ofMinutes(30));
+    }
+
+    @Override
+    public long getReadCacheMaxBytes() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.read-cache.max-size-mb", Long.class)
+                .filter(maxSize -> maxSize >= 0)
+                .map(maxSize -> maxSize * 1024 * 1024)
+                .orElse(256L * 1024 * 1024);
+    }
+
+    @Nonnull
+    @Override
+    public Duration getReadCacheExpiry() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.read-cache.expiry", Duration.class)
+                .orElse(Duration.ofMinutes(5));
+    }
+
+    @Override
+    public int getImportBatchSize() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.import.batch-size", Integer.class)
+                .filter(batchSize -> batchSize > 0)
+                .orElse(500);
+    }
+
+    @Override
+    public int getImportParallelism() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.import.parallelism", Integer.class)
+                .filter(parallelism -> parallelism > 0)
+                .orElse(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public long getImportMaxFileBytes() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.import.max-file-size-mb", Long.class)
+                .filter(maxSize -> maxSize > 0)
+                .map(maxSize -> maxSize * 1024 * 1024)
+                .orElse(100L * 1024 * 1024);
+    }
+
+    @Override
+    public long getImportMaxArchiveBytes() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.import.max-archive-size-mb", Long.class)
+                .filter(maxSize -> maxSize > 0)
+                .map(maxSize -> maxSize * 1024 * 1024)
+                .orElse(4096L * 1024 * 1024);
+    }
+
+    @Nonnull
+    @Override
+    public CBOMCodec getStorageCodec() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.storage.codec", String.class)
+                .map(CBOMCodec::of)
+                .orElse(CBOMCodec.JSON);
+    }
+
+    @Override
+    public boolean isStorageMigrationEnabled() {
+        return ConfigProvider.getConfig()
+                .getOptionalValue("cbomkit.storage.migrate-on-start", Boolean.class)
+                .orElse(false);
+    }
 }
@@ -22,55 +22,154 @@ package com.ibm.infrastructure;
 import app.bootstrap.core.ddd.IDomainEvent;
 import app.bootstrap.core.ddd.IDomainEventBus;
 import app.bootstrap.core.ddd.IDomainEventListener;
+import com.ibm.domain.scanning.events.IScanEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Singleton;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Dispatches domain events to the subscribed listeners. Each listener has a lane per scan, so
+ * that it receives the events of a scan in publishing order, while the events of different scans
+ * and different listeners are handled concurrently on virtual threads. Events that do not belong
+ * to a scan share one lane per listener.
+ */
 @Singleton
 public final class DomainEventBus implements IDomainEventBus {
     private static final Logger LOGGER = LoggerFactory.getLogger(DomainEventBus.class);
+    private static final ThreadLocal<Boolean> DISPATCHING = ThreadLocal.withInitial(() -> false);
+    private static final Object UNKEYED = new Object();
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    @Nonnull private final List<Listener> listeners;
+    @Nonnull private final ExecutorService executor;
+    @Nonnull private final MeterRegistry meterRegistry;
+    private final boolean async;
 
-    private final List<IDomainEventListener> subscribers;
+    public DomainEventBus(
+            @Nonnull IDispatchConfiguration configuration, @Nonnull MeterRegistry meterRegistry) {
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.executor =
+                Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("domain-event-bus-", 0).factory());
+        this.meterRegistry = meterRegistry;
+        this.async = configuration.isDomainEventBusAsync();
+    }
 
-    public DomainEventBus() {
-        this.subscribers = new ArrayList<>();
+    @PreDestroy
+    void shutdown() {
+        this.listeners.forEach(Listener::close);
+        this.listeners.clear();
+        this.executor.shutdown();
     }
 
     @Override
-    public void subscribe(@Nonnull IDomainEventListener listener) {
-        if (subscribers.contains(listener)) {
+    public synchronized void subscribe(@Nonnull IDomainEventListener listener) {
+        if (listeners.stream().anyMatch(subscribed -> subscribed.listener.equals(listener))) {
             return;
         }
-        subscribers.add(listener);
+        listeners.add(new Listener(listener));
     }
 
     @Override
-    public void unsubscribe(@Nonnull IDomainEventListener listener) {
-        subscribers.remove(listener);
+    public synchronized void unsubscribe(@Nonnull IDomainEventListener listener) {
+        listeners.stream()
+                .filter(subscribed -> subscribed.listener.equals(listener))
+                .findFirst()
+                .ifPresent(
+                        subscribed -> {
+                            listeners.remove(subscribed);
+                            // already queued events are still delivered
+                            subscribed.close();
+                        });
     }
 
     @Override
     public void publish(@Nonnull final IDomainEvent event) {
-        try (final ExecutorService executors = Executors.newCachedThreadPool()) {
-            LOGGER.info("sending domainEvent {}", event);
-            final List<IDomainEventListener> copy = new ArrayList<>(subscribers);
-            for (final IDomainEventListener listener : copy) {
-                executors.submit(
-                        () -> {
-                            try {
-                                listener.handleEvent(event);
-                            } catch (Exception e) {
-                                LOGGER.error(e.getMessage(), e);
-                            }
-                        });
+        LOGGER.info("sending domainEvent {}", event);
+        final Object key =
+                event instanceof IScanEvent scanEvent ? scanEvent.getScanId().getUuid() : UNKEYED;
+        final List<CompletableFuture<Void>> deliveries = new ArrayList<>(listeners.size());
+        for (final Listener listener : listeners) {
+            try {
+                deliveries.add(listener.deliver(key, event));
+            } catch (RejectedExecutionException e) {
+                // listener was unsubscribed concurrently
+                LOGGER.debug("listener unsubscribed while publishing {}", event);
             }
+        }
+        // A listener publishing an event itself must not wait for its own lane (deadlock), the
+        // nested event is queued behind the current one instead.
+        if (async || DISPATCHING.get()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new)).join();
         } catch (Exception e) {
             LOGGER.error(e.getMessage());
         }
     }
+
+    private final class Listener {
+        @Nonnull private final IDomainEventListener listener;
+        @Nonnull private final Timer latency;
+        // the last queued event of each lane, removed once the lane has no queued event
+        @Nonnull private final Map<Object, CompletableFuture<Void>> lanes;
+        private volatile boolean closed = false;
+
+        Listener(@Nonnull IDomainEventListener listener) {
+            this.listener = listener;
+            this.lanes = new ConcurrentHashMap<>();
+            this.latency =
+                    Timer.builder("cbomkit.domain.event.bus.dispatch.duration")
+                            .description(
+                                    "Time from publishing an event until a listener handled it")
+                            .tag("listener", listener.getClass().getSimpleName())
+                            .register(meterRegistry);
+        }
+
+        @Nonnull
+        CompletableFuture<Void> deliver(@Nonnull Object key, @Nonnull IDomainEvent event) {
+            if (this.closed) {
+                throw new RejectedExecutionException("listener unsubscribed");
+            }
+            final Timer.Sample sample = Timer.start(meterRegistry);
+            final CompletableFuture<Void> delivery =
+                    this.lanes.compute(
+                            key,
+                            (lane, last) ->
+                                    (last == null ? IDLE : last)
+                                            .thenRunAsync(() -> handle(event, sample), executor));
+            delivery.whenComplete((result, throwable) -> this.lanes.remove(key, delivery));
+            return delivery;
+        }
+
+        private void handle(@Nonnull IDomainEvent event, @Nonnull Timer.Sample sample) {
+            DISPATCHING.set(true);
+            try {
+                listener.handleEvent(event);
+            } catch (Exception e) {
+                LOGGER.error(e.getMessage(), e);
+            } finally {
+                DISPATCHING.remove();
+                sample.stop(latency);
+            }
+        }
+
+        void close() {
+            this.closed = true;
+        }
+    }
 }
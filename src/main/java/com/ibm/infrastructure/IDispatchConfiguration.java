@@ -0,0 +1,58 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure;
+
+import jakarta.annotation.Nonnull;
+import java.time.Duration;
+
+public interface IDispatchConfiguration {
+
+    /** Returns the maximum number of commands that are handled concurrently. */
+    int getCommandBusMaxConcurrency();
+
+    /**
+     * Returns the maximum number of commands that are waiting for execution before new commands
+     * are rejected.
+     */
+    int getCommandBusQueueCapacity();
+
+    /**
+     * Returns true if domain events are published without waiting for the listeners to handle
+     * them.
+     */
+    boolean isDomainEventBusAsync();
+
+    /**
+     * Returns the time after which a query of the given type is completed with a {@link
+     * java.util.concurrent.TimeoutException}.
+     */
+    @Nonnull
+    Duration getQueryTimeout(@Nonnull Class<?> queryType);
+
+    /** Returns the maximum number of progress messages that are kept per scan. */
+    int getProgressJournalMaxEntries();
+
+    /** Returns the maximum number of scans whose progress is kept. */
+    int getProgressJournalMaxScans();
+
+    /** Returns how long the progress of a scan is kept after the scan has completed. */
+    @Nonnull
+    Duration getProgressJournalRetention();
+}
@@ -0,0 +1,87 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure;
+
+import jakarta.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A bounded pool of platform threads for CPU bound work on many inputs, such as parsing or
+ * evaluating CBOMs. The results are passed on in input order on the calling thread.
+ */
+public final class OrderedWorkerPool {
+    @Nonnull private final ExecutorService executorService;
+    private final int parallelism;
+
+    public OrderedWorkerPool(@Nonnull String name, int parallelism) {
+        this.parallelism = parallelism;
+        this.executorService =
+                Executors.newFixedThreadPool(
+                        parallelism, Thread.ofPlatform().name(name + "-", 0).daemon().factory());
+    }
+
+    public void shutdown() {
+        this.executorService.shutdownNow();
+    }
+
+    /**
+     * Applies the task to each input on the pool and passes the results to the consumer, on the
+     * calling thread and in input order. At most twice the parallelism of inputs is read ahead, so
+     * a slow input or consumer slows down the work instead of buffering the results. The task must
+     * report failures as part of its result.
+     */
+    public <I, R> void forEachOrdered(
+            @Nonnull Iterator<I> inputs,
+            @Nonnull Function<? super I, ? extends R> task,
+            @Nonnull Consumer<? super R> consumer)
+            throws InterruptedException {
+        final Deque<Future<R>> running = new ArrayDeque<>();
+        try {
+            while (running.size() < 2 * this.parallelism && inputs.hasNext()) {
+                final I input = inputs.next();
+                running.add(this.executorService.submit(() -> task.apply(input)));
+            }
+            while (!running.isEmpty()) {
+                final R result;
+                try {
+                    result = running.poll().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+                if (inputs.hasNext()) {
+                    final I input = inputs.next();
+                    running.add(this.executorService.submit(() -> task.apply(input)));
+                }
+                consumer.accept(result);
+            }
+        } finally {
+            // left over if the consumer failed or the calling thread was interrupted
+            running.forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -22,13 +22,18 @@ package com.ibm.infrastructure;
 import app.bootstrap.core.cqrs.IQuery;
 import app.bootstrap.core.cqrs.IQueryBus;
 import app.bootstrap.core.cqrs.IQueryHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Singleton;
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +45,29 @@ public final class QueryBus implements IQueryBus {
     @Nonnull
     private final Map<Class<? extends IQuery>, IQueryHandler> handlers = new ConcurrentHashMap<>();
 
+    @SuppressWarnings("all")
+    @Nonnull
+    private final Map<Class<? extends IQuery>, Duration> timeouts = new ConcurrentHashMap<>();
+
+    @Nonnull private final IDispatchConfiguration configuration;
+    @Nonnull private final MeterRegistry meterRegistry;
+    @Nonnull private final ExecutorService executorService;
+
+    public QueryBus(
+            @Nonnull IDispatchConfiguration configuration, @Nonnull MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.meterRegistry = meterRegistry;
+        // queries mostly wait for the database, one virtual thread per query is cheap
+        this.executorService =
+                Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("query-bus-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.executorService.shutdown();
+    }
+
     @Override
     public <Q extends IQuery<R>, R> void register(
             @Nonnull IQueryHandler<Q, R> queryHandler,
@@ -56,26 +84,38 @@ public final class QueryBus implements IQueryBus {
     @Override
     @SuppressWarnings("unchecked")
     public <R> CompletableFuture<R> send(@Nonnull IQuery<R> query) {
-        try (final ExecutorService executors = Executors.newCachedThreadPool()) {
+        try {
             final IQueryHandler<IQuery<R>, R> handler = handlers.get(query.getClass());
             if (handler == null) {
                 throw new IllegalArgumentException(
                         "No handler registered for " + query.getClass().getName());
             }
+            final Timer timer =
+                    Timer.builder("cbomkit.query.bus.duration")
+                            .description("Time spent handling a query")
+                            .tag("query", query.getClass().getSimpleName())
+                            .publishPercentileHistogram()
+                            .register(this.meterRegistry);
+            final Duration timeout =
+                    timeouts.computeIfAbsent(query.getClass(), configuration::getQueryTimeout);
+
             final CompletableFuture<R> completableFuture = new CompletableFuture<>();
-            executors.submit(
+            this.executorService.execute(
                     () -> {
+                        final Timer.Sample sample = Timer.start(this.meterRegistry);
                         try {
                             completableFuture.complete(handler.handle(query));
                         } catch (Exception e) {
                             LOGGER.error(e.getMessage());
                             completableFuture.completeExceptionally(e);
+                        } finally {
+                            sample.stop(timer);
                         }
                     });
-            return completableFuture;
+            return completableFuture.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
         } catch (Exception e) {
             LOGGER.error(e.getMessage());
-            return CompletableFuture.supplyAsync(() -> null);
+            return CompletableFuture.completedFuture(null);
         }
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.compliance;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibm.domain.compliance.PolicyIdentifier;
+import com.ibm.infrastructure.compliance.service.IComplianceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Nonnull;
+import jakarta.inject.Singleton;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Caches the compliance results of stored CBOMs. A result only depends on the CBOM, the policy
+ * and the compliance service (version), so it stays valid until the CBOM is deleted or replaced.
+ */
+@Singleton
+public final class ComplianceResultCache {
+    @Nonnull private final String complianceServiceName;
+    @Nonnull private final String complianceServiceVersion;
+    @Nonnull private final Cache<Key, ComplianceResult> results;
+
+    public ComplianceResultCache(
+            @Nonnull IComplianceConfiguration complianceConfiguration,
+            @Nonnull MeterRegistry meterRegistry) {
+        final IComplianceService complianceService =
+                complianceConfiguration.getComplianceService();
+        this.complianceServiceName = complianceService.getName();
+        this.complianceServiceVersion = complianceService.getVersion();
+        this.results =
+                Caffeine.newBuilder()
+                        .maximumSize(complianceConfiguration.getComplianceResultCacheMaxEntries())
+                        .recordStats()
+                        .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.results, "cbomkit.compliance.results");
+    }
+
+    @Nonnull
+    public Optional<ComplianceResult> get(
+            @Nonnull UUID cbomId, @Nonnull PolicyIdentifier policyIdentifier) {
+        return Optional.ofNullable(this.results.getIfPresent(key(cbomId, policyIdentifier)));
+    }
+
+    public void put(
+            @Nonnull UUID cbomId,
+            @Nonnull PolicyIdentifier policyIdentifier,
+            @Nonnull ComplianceResult complianceResult) {
+        this.results.put(key(cbomId, policyIdentifier), complianceResult);
+    }
+
+    /** Removes the results of all policies for the CBOM. */
+    public void invalidate(@Nonnull UUID cbomId) {
+        this.results.asMap().keySet().removeIf(key -> key.cbomId().equals(cbomId));
+    }
+
+    @Nonnull
+    private Key key(@Nonnull UUID cbomId, @Nonnull PolicyIdentifier policyIdentifier) {
+        return new Key(
+                cbomId,
+                policyIdentifier.id(),
+                this.complianceServiceName,
+                this.complianceServiceVersion);
+    }
+
+    private record Key(
+            @Nonnull UUID cbomId,
+            @Nonnull String policyIdentifier,
+            @Nonnull String complianceServiceName,
+            @Nonnull String complianceServiceVersion) {}
+}
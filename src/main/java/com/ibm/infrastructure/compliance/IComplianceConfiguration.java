@@ -26,4 +26,17 @@ public interface IComplianceConfiguration {
 
     @Nonnull
     IComplianceService getComplianceService();
+
+    /** Returns the policy whose compliance status is stored with each CBOM. */
+    @Nonnull
+    String getDefaultPolicyIdentifier();
+
+    /** Returns the maximum number of cached compliance results of stored CBOMs. */
+    long getComplianceResultCacheMaxEntries();
+
+    /** Returns the number of stored CBOMs evaluated concurrently by batch compliance checks. */
+    int getBatchComplianceParallelism();
+
+    /** Returns the maximum number of projects evaluated by one batch compliance check. */
+    int getBatchComplianceMaxProjects();
 }
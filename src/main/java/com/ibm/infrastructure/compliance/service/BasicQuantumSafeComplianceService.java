@@ -24,62 +24,33 @@ import com.ibm.domain.compliance.PolicyIdentifier;
 import com.ibm.infrastructure.compliance.ComplianceLevel;
 import jakarta.annotation.Nonnull;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.cyclonedx.model.component.crypto.AlgorithmProperties;
 import org.cyclonedx.model.component.crypto.CryptoProperties;
 import org.cyclonedx.model.component.crypto.enums.Primitive;
 
 public class BasicQuantumSafeComplianceService implements IComplianceService {
-    private static final List<Primitive> ASYMMETRIC_PRIMITIVES =
-            Arrays.asList(Primitive.SIGNATURE, Primitive.KEY_AGREE, Primitive.KEM, Primitive.PKE);
-    private static final List<Primitive> UNKNOWN_PRIMITIVES =
-            Arrays.asList(Primitive.UNKNOWN, Primitive.OTHER);
-    private static final List<String> WHITELIST_NAMES =
-            Arrays.asList(
-                    "ml-kem",
-                    "ml-dsa",
-                    "slh-dsa",
-                    "pqxdh",
-                    "bike",
-                    "mceliece",
-                    "frodokem",
-                    "hqc",
-                    "kyber",
-                    "ntru",
-                    "crystals",
-                    "falcon",
-                    "mayo",
-                    "sphincs",
-                    "xmss",
-                    "lms");
-    private static final List<String> WHITELIST_OIDS =
-            Arrays.asList(
-                    "1.3.6.1.4.1.2.267.12.4.4",
-                    "1.3.6.1.4.1.2.267.12.6.5",
-                    "1.3.6.1.4.1.2.267.12.8.7",
-                    "1.3.9999.6.4.16",
-                    "1.3.9999.6.7.16",
-                    "1.3.9999.6.4.13",
-                    "1.3.9999.6.7.13",
-                    "1.3.9999.6.5.12",
-                    "1.3.9999.6.8.12",
-                    "1.3.9999.6.5.10",
-                    "1.3.9999.6.8.10",
-                    "1.3.9999.6.6.12",
-                    "1.3.9999.6.9.12",
-                    "1.3.9999.6.6.10",
-                    "1.3.9999.6.9.10",
-                    "1.3.6.1.4.1.22554.5.6.1",
-                    "1.3.6.1.4.1.22554.5.6.2",
-                    "1.3.6.1.4.1.22554.5.6.3");
+    private static final Set<Primitive> ASYMMETRIC_PRIMITIVES =
+            EnumSet.of(Primitive.SIGNATURE, Primitive.KEY_AGREE, Primitive.KEM, Primitive.PKE);
+    private static final Set<Primitive> UNKNOWN_PRIMITIVES =
+            EnumSet.of(Primitive.UNKNOWN, Primitive.OTHER);
+    // version of the rules below, the whitelist is versioned by its fingerprint
+    private static final String RULES_VERSION = "1";
 
+    @Nonnull private final QuantumSafeWhitelist whitelist;
     @Nonnull private final Map<Integer, ComplianceLevel> complianceLevels;
 
     public BasicQuantumSafeComplianceService() {
+        this(QuantumSafeWhitelist.load(null));
+    }
+
+    public BasicQuantumSafeComplianceService(@Nonnull QuantumSafeWhitelist whitelist) {
+        this.whitelist = whitelist;
         complianceLevels = new HashMap<>();
         complianceLevels.put(
                 1,
@@ -124,6 +95,11 @@ public class BasicQuantumSafeComplianceService implements IComplianceService {
         return "Basic Backend Compliance Service";
     }
 
+    @Override
+    public @Nonnull String getVersion() {
+        return RULES_VERSION + "-" + this.whitelist.getFingerprint();
+    }
+
     @Override
     public @Nonnull List<ComplianceLevel> getComplianceLevels() {
         return new ArrayList<>(complianceLevels.values());
@@ -177,24 +153,20 @@ public class BasicQuantumSafeComplianceService implements IComplianceService {
                 || UNKNOWN_PRIMITIVES.contains(primitive)) {
             final String name = cryptographicAsset.component().getName();
             final String oid = cryptoProperties.getOid();
-            if (oid != null && WHITELIST_OIDS.contains(oid)) {
+            if (oid != null && this.whitelist.containsOid(oid)) {
                 return new BasicCryptographicAssetPolicyResult(
                         cryptographicAsset.identifier(),
                         this.complianceLevels.get(3),
                         "The OID of the asset is part of the Quantum Safe OIDs whitelist");
             }
-            if (name != null) {
-                String lowerCaseName = name.toLowerCase();
-                for (String whitelistItem : WHITELIST_NAMES) {
-                    if (lowerCaseName.contains(whitelistItem)) {
-                        return new BasicCryptographicAssetPolicyResult(
-                                cryptographicAsset.identifier(),
-                                this.complianceLevels.get(3),
-                                "The name of the asset contains '"
-                                        + whitelistItem
-                                        + "', which is part of the Quantum Safe whitelist of component names");
-                    }
-                }
+            final String whitelistItem = name == null ? null : this.whitelist.matchName(name);
+            if (whitelistItem != null) {
+                return new BasicCryptographicAssetPolicyResult(
+                        cryptographicAsset.identifier(),
+                        this.complianceLevels.get(3),
+                        "The name of the asset contains '"
+                                + whitelistItem
+                                + "', which is part of the Quantum Safe whitelist of component names");
             }
             if (ASYMMETRIC_PRIMITIVES.contains(primitive)) {
                 return new BasicCryptographicAssetPolicyResult(
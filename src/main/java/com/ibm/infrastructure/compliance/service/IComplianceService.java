@@ -31,6 +31,13 @@ public interface IComplianceService {
     @Nonnull
     String getName();
 
+    /**
+     * Returns the version of the compliance rules. It must change whenever the evaluation of a
+     * CBOM could change, compliance results are cached per version.
+     */
+    @Nonnull
+    String getVersion();
+
     @Nonnull
     List<ComplianceLevel> getComplianceLevels();
 
@@ -0,0 +1,94 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.compliance.service;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds the fragments contained in a name in a single pass over the name (Aho–Corasick). Names
+ * are matched case-insensitively, the fragments are expected in lower case.
+ */
+final class NameFragmentMatcher {
+    @Nonnull private final List<String> fragments;
+    @Nonnull private final Node root;
+
+    NameFragmentMatcher(@Nonnull List<String> fragments) {
+        this.fragments = List.copyOf(fragments);
+        this.root = new Node();
+        for (int i = 0; i < this.fragments.size(); i++) {
+            Node node = this.root;
+            for (char c : this.fragments.get(i).toCharArray()) {
+                node = node.children.computeIfAbsent(c, k -> new Node());
+            }
+            node.fragment = Math.min(node.fragment, i);
+        }
+        // link each node to the longest proper suffix that is a prefix of a fragment (breadth
+        // first, so that the links of shorter prefixes are known)
+        final Queue<Node> pending = new ArrayDeque<>();
+        for (Node child : this.root.children.values()) {
+            child.fallback = this.root;
+            pending.add(child);
+        }
+        while (!pending.isEmpty()) {
+            final Node node = pending.poll();
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                final Node child = entry.getValue();
+                Node fallback = node.fallback;
+                while (fallback != this.root && !fallback.children.containsKey(entry.getKey())) {
+                    fallback = fallback.fallback;
+                }
+                child.fallback = fallback.children.getOrDefault(entry.getKey(), this.root);
+                child.fragment = Math.min(child.fragment, child.fallback.fragment);
+                pending.add(child);
+            }
+        }
+    }
+
+    /**
+     * Returns the first fragment (in the order given to the constructor) contained in the name, or
+     * null if it contains none.
+     */
+    @Nullable String firstMatch(@Nonnull String name) {
+        int first = Integer.MAX_VALUE;
+        Node node = this.root;
+        for (int i = 0; i < name.length() && first > 0; i++) {
+            final char c = Character.toLowerCase(name.charAt(i));
+            while (node != this.root && !node.children.containsKey(c)) {
+                node = node.fallback;
+            }
+            node = node.children.getOrDefault(c, this.root);
+            first = Math.min(first, node.fragment);
+        }
+        return first == Integer.MAX_VALUE ? null : this.fragments.get(first);
+    }
+
+    private static final class Node {
+        @Nonnull final Map<Character, Node> children = new HashMap<>();
+        @Nullable Node fallback;
+        // index of the first fragment ending at this node (directly or via the fallbacks)
+        int fragment = Integer.MAX_VALUE;
+    }
+}
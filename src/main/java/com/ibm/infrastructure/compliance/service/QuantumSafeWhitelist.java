@@ -0,0 +1,107 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.compliance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The names and OIDs of quantum safe algorithms, compiled for the evaluation of many assets. It is
+ * read from a JSON file of the form {@code {"names": [...], "oids": [...]}}, a name matches if it
+ * contains one of the names of the whitelist.
+ */
+public final class QuantumSafeWhitelist {
+    private static final String DEFAULT_RESOURCE = "/compliance/quantum-safe-whitelist.json";
+
+    @Nonnull private final NameFragmentMatcher names;
+    @Nonnull private final Set<String> oids;
+    @Nonnull private final String fingerprint;
+
+    private QuantumSafeWhitelist(
+            @Nonnull List<String> names, @Nonnull Set<String> oids, @Nonnull String fingerprint) {
+        this.names = new NameFragmentMatcher(names);
+        this.oids = oids;
+        this.fingerprint = fingerprint;
+    }
+
+    /** Loads the whitelist from the file, or the whitelist shipped with CBOMkit if it is null. */
+    @Nonnull
+    public static QuantumSafeWhitelist load(@Nullable String path) {
+        try {
+            if (path != null) {
+                return parse(Files.readAllBytes(Path.of(path)));
+            }
+            try (InputStream inputStream =
+                    QuantumSafeWhitelist.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+                if (inputStream == null) {
+                    throw new IOException(DEFAULT_RESOURCE + " not found");
+                }
+                return parse(inputStream.readAllBytes());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Could not load the quantum safe whitelist: " + e.getMessage(), e);
+        }
+    }
+
+    @Nonnull
+    private static QuantumSafeWhitelist parse(@Nonnull byte[] content) throws IOException {
+        final JsonNode whitelist = new ObjectMapper().readTree(content);
+        final List<String> names = new ArrayList<>();
+        whitelist.path("names").forEach(name -> names.add(name.asText().toLowerCase(Locale.ROOT)));
+        final List<String> oids = new ArrayList<>();
+        whitelist.path("oids").forEach(oid -> oids.add(oid.asText()));
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return new QuantumSafeWhitelist(
+                    names, Set.copyOf(oids), HexFormat.of().formatHex(digest, 0, 8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Returns the first whitelisted name contained in the name, or null if there is none. */
+    @Nullable public String matchName(@Nonnull String name) {
+        return this.names.firstMatch(name);
+    }
+
+    public boolean containsOid(@Nonnull String oid) {
+        return this.oids.contains(oid);
+    }
+
+    /** Returns a short hash of the whitelist file, it changes whenever the whitelist changes. */
+    @Nonnull
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
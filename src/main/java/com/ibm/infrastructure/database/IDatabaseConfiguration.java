@@ -0,0 +1,59 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.database;
+
+import com.ibm.infrastructure.database.codec.CBOMCodec;
+import jakarta.annotation.Nonnull;
+import java.time.Duration;
+
+public interface IDatabaseConfiguration {
+
+    /**
+     * Returns the maximum estimated heap size of the CBOMs cached by the read repository, 0
+     * disables the cache.
+     */
+    long getReadCacheMaxBytes();
+
+    /**
+     * Returns how long a cached CBOM is used. Changes made by other instances of the service
+     * become visible after this time.
+     */
+    @Nonnull
+    Duration getReadCacheExpiry();
+
+    /** Returns the number of imported CBOMs stored per transaction. */
+    int getImportBatchSize();
+
+    /** Returns the number of imported CBOMs parsed and validated concurrently. */
+    int getImportParallelism();
+
+    /** Returns the maximum size of a single CBOM file of an imported zip archive. */
+    long getImportMaxFileBytes();
+
+    /** Returns the maximum uncompressed size of all files of an imported zip archive. */
+    long getImportMaxArchiveBytes();
+
+    /** Returns the format in which new CBOMs are stored. */
+    @Nonnull
+    CBOMCodec getStorageCodec();
+
+    /** Returns whether the stored CBOMs are converted to the configured format on start. */
+    boolean isStorageMigrationEnabled();
+}
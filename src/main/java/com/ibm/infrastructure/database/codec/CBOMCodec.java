@@ -0,0 +1,205 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.database.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Formats in which CBOMs are stored. The format of a stored CBOM is kept with it, so CBOMs of
+ * different formats can be read side by side.
+ */
+public enum CBOMCodec {
+    /** JSON text in a JSONB column. */
+    JSON("json"),
+    /** Binary Smile encoding of the JSON tree, smaller and parsed faster than JSON text. */
+    SMILE("smile"),
+    /**
+     * JSON text compressed by deflate with a preset dictionary of the structure that recurs in
+     * CBOMs. The dictionary is part of the format, a changed dictionary needs a new codec.
+     */
+    DEFLATE("deflate");
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    // property names and string values (e.g. "cryptographic-asset") are written once per CBOM
+    private static final ObjectMapper SMILE_MAPPER =
+            new ObjectMapper(
+                    SmileFactory.builder()
+                            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                            .build());
+    private static final byte[] DEFLATE_DICTIONARY = loadDictionary();
+
+    @Nonnull private final String id;
+
+    CBOMCodec(@Nonnull String id) {
+        this.id = id;
+    }
+
+    /** Returns the identifier of the codec, stored with each encoded CBOM. */
+    @Nonnull
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the codec of the identifier, JSON if null.
+     *
+     * @throws IllegalArgumentException if there is no codec with the identifier
+     */
+    @Nonnull
+    public static CBOMCodec of(@Nullable String id) {
+        if (id == null) {
+            return JSON;
+        }
+        for (CBOMCodec codec : values()) {
+            if (codec.id.equalsIgnoreCase(id)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown CBOM storage codec " + id);
+    }
+
+    /** Returns the stored CBOM, either the JSON tree or the data encoded by the codec. */
+    @Nonnull
+    public static JsonNode read(
+            @Nullable JsonNode json, @Nullable byte[] data, @Nullable String codecId) {
+        if (json != null) {
+            return json;
+        }
+        if (data == null) {
+            throw new IllegalStateException("No CBOM stored");
+        }
+        return of(codecId).decode(data);
+    }
+
+    /** Returns the stored CBOM as JSON text. */
+    @Nonnull
+    public static String readString(@Nullable byte[] data, @Nullable String codecId) {
+        if (data == null) {
+            throw new IllegalStateException("No CBOM stored");
+        }
+        return of(codecId).decodeToString(data);
+    }
+
+    @Nonnull
+    public byte[] encode(@Nonnull JsonNode cbom) {
+        try {
+            return switch (this) {
+                case JSON -> JSON_MAPPER.writeValueAsBytes(cbom);
+                case SMILE -> SMILE_MAPPER.writeValueAsBytes(cbom);
+                case DEFLATE -> deflate(JSON_MAPPER.writeValueAsBytes(cbom));
+            };
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode the CBOM as " + id, e);
+        }
+    }
+
+    @Nonnull
+    public JsonNode decode(@Nonnull byte[] data) {
+        try {
+            return switch (this) {
+                case JSON -> JSON_MAPPER.readTree(data);
+                case SMILE -> SMILE_MAPPER.readTree(data);
+                case DEFLATE -> JSON_MAPPER.readTree(inflate(data));
+            };
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalStateException("Could not decode the CBOM stored as " + id, e);
+        }
+    }
+
+    /** Returns the JSON text of the encoded CBOM, without parsing it if possible. */
+    @Nonnull
+    public String decodeToString(@Nonnull byte[] data) {
+        try {
+            return switch (this) {
+                case JSON -> new String(data, StandardCharsets.UTF_8);
+                case SMILE -> JSON_MAPPER.writeValueAsString(SMILE_MAPPER.readTree(data));
+                case DEFLATE -> new String(inflate(data), StandardCharsets.UTF_8);
+            };
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalStateException("Could not decode the CBOM stored as " + id, e);
+        }
+    }
+
+    @Nonnull
+    private static byte[] deflate(@Nonnull byte[] json) {
+        final Deflater deflater = new Deflater();
+        try {
+            deflater.setDictionary(DEFLATE_DICTIONARY);
+            deflater.setInput(json);
+            deflater.finish();
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(json.length / 8);
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                outputStream.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Nonnull
+    private static byte[] inflate(@Nonnull byte[] data) throws DataFormatException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length * 8);
+            final byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                final int length = inflater.inflate(buffer);
+                if (length > 0) {
+                    outputStream.write(buffer, 0, length);
+                } else if (inflater.needsDictionary()) {
+                    inflater.setDictionary(DEFLATE_DICTIONARY);
+                } else if (inflater.needsInput()) {
+                    throw new DataFormatException("Truncated CBOM data");
+                }
+            }
+            return outputStream.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Nonnull
+    private static byte[] loadDictionary() {
+        try (InputStream inputStream =
+                CBOMCodec.class.getResourceAsStream("/storage/cbom-deflate-dictionary.txt")) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Missing CBOM deflate dictionary");
+            }
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load the CBOM deflate dictionary", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.database.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.infrastructure.database.IDatabaseConfiguration;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Encodes the CBOMs to store by the configured codec and records how well they compress. */
+@Singleton
+public final class CBOMStorage {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // measuring the JSON size serializes the CBOM again, so only every n-th CBOM is measured
+    private static final int COMPRESSION_SAMPLE_INTERVAL = 32;
+
+    @Nonnull private final CBOMCodec codec;
+    @Nonnull private final DistributionSummary compressionRatio;
+    @Nonnull private final AtomicLong encoded = new AtomicLong();
+
+    public CBOMStorage(
+            @Nonnull IDatabaseConfiguration databaseConfiguration,
+            @Nonnull MeterRegistry meterRegistry) {
+        this.codec = databaseConfiguration.getStorageCodec();
+        this.compressionRatio =
+                DistributionSummary.builder("cbomkit.storage.compression-ratio")
+                        .description("JSON size of sampled CBOMs divided by their encoded size")
+                        .tag("codec", this.codec.getId())
+                        .register(meterRegistry);
+    }
+
+    @Nonnull
+    public CBOMCodec getCodec() {
+        return codec;
+    }
+
+    /** Returns the CBOM encoded by the configured codec, null if it is stored as JSON. */
+    @Nullable public byte[] encode(@Nonnull JsonNode cbom) {
+        if (this.codec == CBOMCodec.JSON) {
+            return null;
+        }
+        final byte[] data = this.codec.encode(cbom);
+        if (this.encoded.getAndIncrement() % COMPRESSION_SAMPLE_INTERVAL == 0) {
+            this.compressionRatio.record((double) jsonLength(cbom) / Math.max(1, data.length));
+        }
+        return data;
+    }
+
+    private static long jsonLength(@Nonnull JsonNode cbom) {
+        final CountingOutputStream outputStream = new CountingOutputStream();
+        try {
+            OBJECT_MAPPER.writeValue(outputStream, cbom);
+        } catch (IOException e) {
+            // counting does not fail
+            throw new IllegalStateException(e);
+        }
+        return outputStream.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(@Nonnull byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
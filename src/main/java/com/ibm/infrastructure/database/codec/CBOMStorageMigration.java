@@ -0,0 +1,260 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.database.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.infrastructure.database.IDatabaseConfiguration;
+import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Status;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts the stored CBOMs to the configured codec, in batches in the background. CBOMs stored
+ * in another format stay readable, the migration only reclaims space (or makes the CBOMs
+ * queryable as JSON again), so the service is available while it runs.
+ */
+@Singleton
+public final class CBOMStorageMigration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CBOMStorageMigration.class);
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_READ_ATTEMPTS = 5;
+    private static final Duration READ_RETRY_DELAY = Duration.ofSeconds(10);
+
+    /** An entity with a CBOM stored either as JSON or encoded. */
+    private record Target(
+            @Nonnull String entity,
+            @Nonnull String json,
+            @Nonnull String data,
+            @Nonnull String codec) {}
+
+    private static final List<Target> TARGETS =
+            List.of(
+                    new Target("CBOMReadModel", "bom", "bomData", "bomCodec"),
+                    new Target("ScanResult", "cbom", "cbomData", "cbomCodec"));
+
+    @Nonnull private final IDatabaseConfiguration databaseConfiguration;
+    @Nonnull private final CBOMStorage cbomStorage;
+    @Nonnull private final MeterRegistry meterRegistry;
+
+    public CBOMStorageMigration(
+            @Nonnull IDatabaseConfiguration databaseConfiguration,
+            @Nonnull CBOMStorage cbomStorage,
+            @Nonnull MeterRegistry meterRegistry) {
+        this.databaseConfiguration = databaseConfiguration;
+        this.cbomStorage = cbomStorage;
+        this.meterRegistry = meterRegistry;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!this.databaseConfiguration.isStorageMigrationEnabled()) {
+            return;
+        }
+        Thread.ofPlatform().name("cbom-storage-migration").daemon().start(this::migrate);
+    }
+
+    /** Converts the CBOMs of all entities, returns the number of converted CBOMs. */
+    public long migrate() {
+        long migrated = 0;
+        for (Target target : TARGETS) {
+            migrated += migrate(target);
+        }
+        return migrated;
+    }
+
+    private long migrate(@Nonnull Target target) {
+        final CBOMCodec codec = this.cbomStorage.getCodec();
+        final Counter counter =
+                Counter.builder("cbomkit.storage.migrated")
+                        .description("Number of stored CBOMs converted to the configured codec")
+                        .tag("entity", target.entity())
+                        .tag("codec", codec.getId())
+                        .register(this.meterRegistry);
+        LOGGER.info("Converting the CBOMs of {} to {}", target.entity(), codec.getId());
+        long migrated = 0;
+        @Nullable Object lastId = null;
+        while (true) {
+            final List<Object[]> rows = nextBatchWithRetries(target, codec, lastId);
+            if (rows == null) {
+                LOGGER.error(
+                        "Aborted converting the CBOMs of {} to {} after {} CBOMs, the remaining"
+                                + " CBOMs are converted on the next start",
+                        target.entity(),
+                        codec.getId(),
+                        migrated);
+                return migrated;
+            }
+            if (rows.isEmpty()) {
+                break;
+            }
+            lastId = rows.getLast()[0];
+            final int converted = convert(target, codec, rows);
+            counter.increment(converted);
+            migrated += converted;
+        }
+        LOGGER.info("Converted {} CBOMs of {} to {}", migrated, target.entity(), codec.getId());
+        return migrated;
+    }
+
+    /** Reads the next batch, retrying a failed read. Returns null if the reads keep failing. */
+    @Nullable private static List<Object[]> nextBatchWithRetries(
+            @Nonnull Target target, @Nonnull CBOMCodec codec, @Nullable Object lastId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return nextBatch(target, codec, lastId);
+            } catch (IllegalStateException e) {
+                if (attempt == MAX_READ_ATTEMPTS) {
+                    return null;
+                }
+                LOGGER.warn(
+                        "Could not read the CBOMs of {} (attempt {} of {}), retrying",
+                        target.entity(),
+                        attempt,
+                        MAX_READ_ATTEMPTS);
+            }
+            try {
+                Thread.sleep(READ_RETRY_DELAY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the id, JSON, data and codec of the next CBOMs stored in another format.
+     *
+     * @throws IllegalStateException if the CBOMs could not be read
+     */
+    @Nonnull
+    private static List<Object[]> nextBatch(
+            @Nonnull Target target, @Nonnull CBOMCodec codec, @Nullable Object lastId) {
+        final EntityManager entityManager = CBOMReadModel.getEntityManager();
+        final ArcContainer container = Arc.container();
+        container.requestContext().activate();
+        try {
+            QuarkusTransaction.begin();
+            final StringBuilder queryBuilder =
+                    new StringBuilder("SELECT target.id, target.")
+                            .append(target.json())
+                            .append(", target.")
+                            .append(target.data())
+                            .append(", target.")
+                            .append(target.codec())
+                            .append(" FROM ")
+                            .append(target.entity())
+                            .append(" target WHERE ");
+            if (codec == CBOMCodec.JSON) {
+                queryBuilder.append("target.").append(target.codec()).append(" IS NOT NULL");
+            } else {
+                queryBuilder
+                        .append("(target.")
+                        .append(target.codec())
+                        .append(" IS NULL OR target.")
+                        .append(target.codec())
+                        .append(" <> :codec)");
+            }
+            if (lastId != null) {
+                queryBuilder.append(" AND target.id > :lastId");
+            }
+            queryBuilder.append(" ORDER BY target.id");
+            final TypedQuery<Object[]> query =
+                    entityManager
+                            .createQuery(queryBuilder.toString(), Object[].class)
+                            .setMaxResults(BATCH_SIZE);
+            if (codec != CBOMCodec.JSON) {
+                query.setParameter("codec", codec.getId());
+            }
+            if (lastId != null) {
+                query.setParameter("lastId", lastId);
+            }
+            final List<Object[]> rows = query.getResultList();
+            QuarkusTransaction.commit();
+            return rows;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            if (QuarkusTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                QuarkusTransaction.rollback();
+            }
+            throw new IllegalStateException(
+                    "Could not read the CBOMs of " + target.entity() + ": " + e.getMessage(), e);
+        } finally {
+            container.requestContext().terminate();
+        }
+    }
+
+    /** Converts the rows in one transaction, returns the number of converted rows. */
+    private int convert(
+            @Nonnull Target target, @Nonnull CBOMCodec codec, @Nonnull List<Object[]> rows) {
+        final EntityManager entityManager = CBOMReadModel.getEntityManager();
+        final ArcContainer container = Arc.container();
+        container.requestContext().activate();
+        try {
+            QuarkusTransaction.begin();
+            final String update =
+                    "UPDATE "
+                            + target.entity()
+                            + " target SET target."
+                            + target.json()
+                            + " = :json, target."
+                            + target.data()
+                            + " = :data, target."
+                            + target.codec()
+                            + " = :codec WHERE target.id = :id";
+            for (Object[] row : rows) {
+                final JsonNode cbom =
+                        CBOMCodec.read((JsonNode) row[1], (byte[]) row[2], (String) row[3]);
+                final byte[] data = this.cbomStorage.encode(cbom);
+                entityManager
+                        .createQuery(update)
+                        .setParameter("json", data == null ? cbom : null)
+                        .setParameter("data", data)
+                        .setParameter("codec", data == null ? null : codec.getId())
+                        .setParameter("id", row[0])
+                        .executeUpdate();
+            }
+            QuarkusTransaction.commit();
+            return rows.size();
+        } catch (Exception e) {
+            // the batch keeps its format, the migration continues with the next one
+            LOGGER.error("Could not convert CBOMs of {}: {}", target.entity(), e.getMessage(), e);
+            if (QuarkusTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                QuarkusTransaction.rollback();
+            }
+            return 0;
+        } finally {
+            container.requestContext().terminate();
+        }
+    }
+}
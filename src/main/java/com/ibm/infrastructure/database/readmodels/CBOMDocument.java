@@ -0,0 +1,77 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.database.readmodels;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.ibm.infrastructure.database.codec.CBOMCodec;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.Date;
+
+/**
+ * Read-only view of a {@link CBOMReadModel} for responses. The CBOM is read from the database as
+ * JSON text and written to the response as is, instead of being parsed into a tree and serialized
+ * again; a CBOM stored deflated is only inflated. The JSON structure is the same as the one of
+ * {@link CBOMReadModel}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({
+    "projectIdentifier",
+    "gitUrl",
+    "branch",
+    "packageFolder",
+    "commit",
+    "createdAt",
+    "bom"
+})
+public record CBOMDocument(
+        @Nonnull @JsonProperty("projectIdentifier") String projectIdentifier,
+        @Nonnull @JsonProperty("gitUrl") String repository,
+        @Nullable @JsonProperty("branch") String revision,
+        @Nullable @JsonProperty("packageFolder") String packageFolder,
+        @Nullable @JsonProperty("commit") String commit,
+        @Nonnull @JsonProperty("createdAt") Date createdAt,
+        @Nonnull @JsonProperty("bom") @JsonRawValue String bom) {
+
+    /** Used by queries, the CBOM is either JSON text or data encoded by the codec. */
+    @SuppressWarnings("java:S107")
+    public CBOMDocument(
+            @Nonnull String projectIdentifier,
+            @Nonnull String repository,
+            @Nullable String revision,
+            @Nullable String packageFolder,
+            @Nullable String commit,
+            @Nonnull Date createdAt,
+            @Nullable String bom,
+            @Nullable byte[] bomData,
+            @Nullable String bomCodec) {
+        this(
+                projectIdentifier,
+                repository,
+                revision,
+                packageFolder,
+                commit,
+                createdAt,
+                bom != null ? bom : CBOMCodec.readString(bomData, bomCodec));
+    }
+}
@@ -25,12 +25,16 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.infrastructure.database.codec.CBOMCodec;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import java.util.Date;
 import java.util.UUID;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -38,6 +42,15 @@ import org.hibernate.type.SqlTypes;
 
 @Entity
 @Cacheable
+@Table(
+        indexes = {
+            @Index(name = "cbom_repository_created_at_idx", columnList = "repository, createdAt"),
+            @Index(
+                    name = "cbom_project_identifier_created_at_idx",
+                    columnList = "projectIdentifier, createdAt"),
+            @Index(name = "cbom_commit_idx", columnList = "commit"),
+            @Index(name = "cbom_created_at_idx", columnList = "createdAt")
+        })
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonPropertyOrder({
     "projectIdentifier",
@@ -66,10 +79,22 @@ public class CBOMReadModel extends PanacheEntityBase implements IReadModel<UUID>
     @Nullable protected String commit;
     @Nonnull protected Date createdAt;
 
-    @Nonnull
+    // the CBOM is stored either as JSON (bom) or encoded by the codec bomCodec (bomData)
+    @Nullable
     @JdbcTypeCode(SqlTypes.JSON)
     protected JsonNode bom;
 
+    @JsonIgnore @Nullable protected byte[] bomData;
+    @JsonIgnore @Nullable protected String bomCodec;
+    @JsonIgnore @Transient @Nullable private JsonNode decodedBom;
+
+    @JsonIgnore @Nullable protected String scannerVersion;
+
+    // summary of the CBOM, listed without loading the CBOM itself
+    @JsonIgnore @Nullable protected Integer numberOfComponents;
+    @JsonIgnore @Nullable protected Integer numberOfCryptographicAssets;
+    @JsonIgnore @Nullable protected Boolean compliant;
+
     @SuppressWarnings("java:S107")
     public CBOMReadModel(
             @Nonnull UUID id,
@@ -80,6 +105,29 @@ public class CBOMReadModel extends PanacheEntityBase implements IReadModel<UUID>
             @Nullable String commit,
             @Nonnull Date createdAt,
             @Nonnull JsonNode bom) {
+        this(
+                id,
+                projectIdentifier,
+                repository,
+                revision,
+                packageFolder,
+                commit,
+                createdAt,
+                bom,
+                null);
+    }
+
+    @SuppressWarnings("java:S107")
+    public CBOMReadModel(
+            @Nonnull UUID id,
+            @Nonnull String projectIdentifier,
+            @Nonnull String repository,
+            @Nullable String revision,
+            @Nullable String packageFolder,
+            @Nullable String commit,
+            @Nonnull Date createdAt,
+            @Nonnull JsonNode bom,
+            @Nullable String scannerVersion) {
         this.id = id;
         this.projectIdentifier = projectIdentifier;
         this.repository = repository;
@@ -88,6 +136,16 @@ public class CBOMReadModel extends PanacheEntityBase implements IReadModel<UUID>
         this.commit = commit;
         this.createdAt = createdAt;
         this.bom = bom;
+        this.scannerVersion = scannerVersion;
+        final JsonNode components = bom.path("components");
+        this.numberOfComponents = components.size();
+        int cryptographicAssets = 0;
+        for (JsonNode component : components) {
+            if ("cryptographic-asset".equals(component.path("type").asText())) {
+                cryptographicAssets++;
+            }
+        }
+        this.numberOfCryptographicAssets = cryptographicAssets;
     }
 
     protected CBOMReadModel() {}
@@ -126,6 +184,47 @@ public class CBOMReadModel extends PanacheEntityBase implements IReadModel<UUID>
 
     @Nonnull
     public JsonNode getBom() {
-        return bom;
+        if (bom != null) {
+            return bom;
+        }
+        JsonNode decoded = decodedBom;
+        if (decoded == null) {
+            decoded = CBOMCodec.read(null, bomData, bomCodec);
+            decodedBom = decoded;
+        }
+        return decoded;
+    }
+
+    /** Stores the CBOM encoded by the codec instead of as JSON. */
+    public void setEncodedBom(@Nonnull CBOMCodec codec, @Nonnull byte[] data) {
+        this.decodedBom = getBom();
+        this.bom = null;
+        this.bomData = data;
+        this.bomCodec = codec.getId();
+    }
+
+    /** Returns the scanner version that produced the CBOM, null if the CBOM was uploaded. */
+    @Nullable public String getScannerVersion() {
+        return scannerVersion;
+    }
+
+    @Nullable public Integer getNumberOfComponents() {
+        return numberOfComponents;
+    }
+
+    @Nullable public Integer getNumberOfCryptographicAssets() {
+        return numberOfCryptographicAssets;
+    }
+
+    /**
+     * Returns whether the CBOM complies with the default compliance policy, null if the compliance
+     * could not be evaluated.
+     */
+    @Nullable public Boolean getCompliant() {
+        return compliant;
+    }
+
+    public void setCompliant(@Nullable Boolean compliant) {
+        this.compliant = compliant;
     }
 }
@@ -21,20 +21,37 @@ package com.ibm.infrastructure.database.readmodels;
 
 import app.bootstrap.core.ddd.IDomainEventBus;
 import app.bootstrap.core.ddd.ReadRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.packageurl.PackageURL;
 import com.ibm.domain.scanning.Commit;
 import com.ibm.domain.scanning.GitUrl;
+import com.ibm.infrastructure.database.IDatabaseConfiguration;
+import com.ibm.infrastructure.database.codec.CBOMStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.quarkus.arc.Arc;
 import io.quarkus.arc.ArcContainer;
 import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Singleton;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
@@ -44,44 +61,140 @@ import org.slf4j.LoggerFactory;
 public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel>
         implements ICBOMReadRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(CBOMReadRepository.class);
+    // the CBOM is selected as JSON text, it is written to responses without being parsed
+    private static final String SELECT_DOCUMENT =
+            "SELECT new "
+                    + CBOMDocument.class.getName()
+                    + "(read.projectIdentifier, read.repository, read.revision,"
+                    + " read.packageFolder, read.commit, read.createdAt, cast(read.bom as String),"
+                    + " read.bomData, read.bomCodec)";
+    // the latest read model of each repository
+    private static final String FROM_LATEST =
+            " FROM LatestCBOMReadModel latest JOIN CBOMReadModel read ON read.id = latest.cbomId";
 
-    public CBOMReadRepository(@Nonnull IDomainEventBus domainEventBus) {
+    // read models and documents found by the lookups, weighed in KB by the estimated CBOM size.
+    // Only hits are cached, entries are invalidated when a read model of the same repository or
+    // project is saved or deleted by this instance.
+    @Nonnull private final Cache<LookupKey, CBOMReadModel> readModels;
+    @Nonnull private final Cache<String, CBOMDocument> documents;
+    @Nonnull private final CBOMStorage cbomStorage;
+
+    public CBOMReadRepository(
+            @Nonnull IDomainEventBus domainEventBus,
+            @Nonnull IDatabaseConfiguration databaseConfiguration,
+            @Nonnull CBOMStorage cbomStorage,
+            @Nonnull MeterRegistry meterRegistry) {
         super(domainEventBus);
+        this.cbomStorage = cbomStorage;
+        // the budget is shared equally by both caches
+        final long maxWeight = databaseConfiguration.getReadCacheMaxBytes() / 1024 / 2;
+        this.readModels =
+                Caffeine.newBuilder()
+                        .maximumWeight(maxWeight)
+                        .<LookupKey, CBOMReadModel>weigher(
+                                (key, readModel) -> toKilobytes(estimateBytes(readModel.getBom())))
+                        .expireAfterWrite(databaseConfiguration.getReadCacheExpiry())
+                        .recordStats()
+                        .build();
+        this.documents =
+                Caffeine.newBuilder()
+                        .maximumWeight(maxWeight)
+                        .<String, CBOMDocument>weigher(
+                                (key, document) -> toKilobytes(2L * document.bom().length()))
+                        .expireAfterWrite(databaseConfiguration.getReadCacheExpiry())
+                        .recordStats()
+                        .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.readModels, "cbomkit.read-cache.models");
+        CaffeineCacheMetrics.monitor(meterRegistry, this.documents, "cbomkit.read-cache.documents");
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        this.backfillLatest();
     }
 
     @Override
     public @Nonnull Optional<CBOMReadModel> findBy(
             @Nonnull GitUrl gitUrl, @Nullable Commit commit, @Nullable Path packageFolder) {
-        return findByRepository(gitUrl.value(), commit, packageFolder);
+        final LookupKey key =
+                new LookupKey(
+                        LookupKey.REPOSITORY,
+                        gitUrl.value(),
+                        commit == null ? null : commit.hash(),
+                        packageFolder == null ? null : packageFolder.toString());
+        return Optional.ofNullable(
+                readModels.get(
+                        key,
+                        k -> findByRepository(gitUrl.value(), commit, packageFolder).orElse(null)));
     }
 
     @Override
     public @Nonnull Optional<CBOMReadModel> findBy(
             @Nonnull PackageURL purl, @Nullable Commit commit) {
-        return findByProjectIdentifier(purl.canonicalize(), commit);
+        final String projectIdentifier = purl.canonicalize();
+        return findCachedByProjectIdentifier(projectIdentifier, commit);
     }
 
     @Override
     public @Nonnull Optional<CBOMReadModel> findBy(@Nonnull String projectIdentifier) {
-        return findByProjectIdentifier(projectIdentifier, null);
+        return findCachedByProjectIdentifier(projectIdentifier, null);
     }
 
     @Override
-    public @Nonnull Collection<CBOMReadModel> getRecent(int limit) {
+    public @Nonnull Optional<CBOMDocument> findDocumentBy(@Nonnull String projectIdentifier) {
+        return Optional.ofNullable(
+                documents.get(
+                        projectIdentifier,
+                        k -> findDocumentByProjectIdentifier(projectIdentifier).orElse(null)));
+    }
+
+    private @Nonnull Optional<CBOMDocument> findDocumentByProjectIdentifier(
+            @Nonnull String projectIdentifier) {
         final EntityManager entityManager = CBOMReadModel.getEntityManager();
         final ArcContainer container = Arc.container();
         container.requestContext().activate();
         try {
             QuarkusTransaction.begin();
-            final List<CBOMReadModel> match =
+            final Optional<CBOMDocument> match =
                     entityManager
                             .createQuery(
-                                    "SELECT DISTINCT read FROM CBOMReadModel read"
-                                            + " WHERE read.createdAt = ( SELECT MAX(r.createdAt) FROM CBOMReadModel r WHERE r.repository = read.repository )"
-                                            + " ORDER BY read.createdAt DESC"
-                                            + " LIMIT :limit",
-                                    CBOMReadModel.class)
-                            .setParameter("limit", limit)
+                                    SELECT_DOCUMENT
+                                            + " FROM CBOMReadModel read"
+                                            + " WHERE read.projectIdentifier = :projectIdentifier"
+                                            + " ORDER BY read.createdAt DESC",
+                                    CBOMDocument.class)
+                            .setParameter("projectIdentifier", projectIdentifier)
+                            .setMaxResults(1)
+                            .getResultStream()
+                            .findFirst();
+            QuarkusTransaction.commit();
+            return match;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            if (QuarkusTransaction.getStatus()
+                    != 6) { // https://github.com/quarkusio/quarkus/wiki/Migration-Guide-3.22#quarkustransactionisactive-deprecated
+                QuarkusTransaction.rollback();
+            }
+        } finally {
+            container.requestContext().terminate();
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public @Nonnull Collection<CBOMDocument> getRecent(int limit) {
+        final EntityManager entityManager = CBOMReadModel.getEntityManager();
+        final ArcContainer container = Arc.container();
+        container.requestContext().activate();
+        try {
+            QuarkusTransaction.begin();
+            final List<CBOMDocument> match =
+                    entityManager
+                            .createQuery(
+                                    SELECT_DOCUMENT
+                                            + FROM_LATEST
+                                            + " ORDER BY latest.createdAt DESC",
+                                    CBOMDocument.class)
+                            .setMaxResults(limit)
                             .getResultList();
             QuarkusTransaction.commit();
             return match;
@@ -97,6 +210,100 @@ public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel
         return List.of();
     }
 
+    @Override
+    public @Nonnull List<CBOMSummary> getRecentSummaries(
+            int limit, @Nullable CBOMSummaryCursor after) {
+        final EntityManager entityManager = CBOMReadModel.getEntityManager();
+        final ArcContainer container = Arc.container();
+        container.requestContext().activate();
+        try {
+            QuarkusTransaction.begin();
+            final StringBuilder queryBuilder =
+                    new StringBuilder(
+                            "SELECT new "
+                                    + CBOMSummary.class.getName()
+                                    + "(read.id, read.projectIdentifier, read.repository,"
+                                    + " read.revision, read.packageFolder, read.commit,"
+                                    + " read.createdAt, read.numberOfComponents,"
+                                    + " read.numberOfCryptographicAssets, read.compliant)"
+                                    + FROM_LATEST);
+            if (after != null) {
+                queryBuilder.append(
+                        " WHERE latest.createdAt < :createdAt"
+                                + " OR (latest.createdAt = :createdAt AND latest.cbomId < :id)");
+            }
+            queryBuilder.append(" ORDER BY latest.createdAt DESC, latest.cbomId DESC");
+
+            final TypedQuery<CBOMSummary> query =
+                    entityManager
+                            .createQuery(queryBuilder.toString(), CBOMSummary.class)
+                            .setMaxResults(limit);
+            if (after != null) {
+                query.setParameter("createdAt", Timestamp.from(after.createdAt()));
+                query.setParameter("id", after.id());
+            }
+            final List<CBOMSummary> match = query.getResultList();
+            QuarkusTransaction.commit();
+            return match;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            if (QuarkusTransaction.getStatus()
+                    != 6) { // https://github.com/quarkusio/quarkus/wiki/Migration-Guide-3.22#quarkustransactionisactive-deprecated
+                QuarkusTransaction.rollback();
+            }
+        } finally {
+            container.requestContext().terminate();
+        }
+        return List.of();
+    }
+
+    @Override
+    public @Nonnull List<String> findProjectIdentifiers(
+            @Nullable String gitUrlPrefix, @Nullable Instant createdAfter, int limit) {
+        final EntityManager entityManager = CBOMReadModel.getEntityManager();
+        final ArcContainer container = Arc.container();
+        container.requestContext().activate();
+        try {
+            QuarkusTransaction.begin();
+            final List<String> conditions = new ArrayList<>();
+            if (gitUrlPrefix != null) {
+                conditions.add("read.repository LIKE :gitUrlPrefix ESCAPE '\\'");
+            }
+            if (createdAfter != null) {
+                conditions.add("read.createdAt > :createdAfter");
+            }
+            final String where =
+                    conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+            final TypedQuery<String> query =
+                    entityManager
+                            .createQuery(
+                                    "SELECT DISTINCT read.projectIdentifier FROM CBOMReadModel read"
+                                            + where
+                                            + " ORDER BY read.projectIdentifier",
+                                    String.class)
+                            .setMaxResults(limit);
+            if (gitUrlPrefix != null) {
+                query.setParameter(
+                        "gitUrlPrefix", gitUrlPrefix.replaceAll("([\\\\%_])", "\\\\$1") + "%");
+            }
+            if (createdAfter != null) {
+                query.setParameter("createdAfter", Timestamp.from(createdAfter));
+            }
+            final List<String> match = query.getResultList();
+            QuarkusTransaction.commit();
+            return match;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            if (QuarkusTransaction.getStatus()
+                    != 6) { // https://github.com/quarkusio/quarkus/wiki/Migration-Guide-3.22#quarkustransactionisactive-deprecated
+                QuarkusTransaction.rollback();
+            }
+        } finally {
+            container.requestContext().terminate();
+        }
+        return List.of();
+    }
+
     @Override
     public @Nonnull Optional<CBOMReadModel> read(@Nonnull UUID uuid) {
         final EntityManager entityManager = CBOMReadModel.getEntityManager();
@@ -126,14 +333,17 @@ public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel
         final ArcContainer container = Arc.container();
         container.requestContext().activate();
         try {
+            encode(cbomReadModel);
             QuarkusTransaction.begin();
             final CBOMReadModel existing =
                     entityManager.find(CBOMReadModel.class, cbomReadModel.getId());
             if (existing == null) {
                 entityManager.persist(cbomReadModel);
             } else {
+                invalidate(existing);
                 entityManager.merge(cbomReadModel);
             }
+            updateLatest(entityManager, cbomReadModel);
             QuarkusTransaction.commit();
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
@@ -143,9 +353,41 @@ public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel
             }
         } finally {
             container.requestContext().terminate();
+            // after the commit, lookups running concurrently may have cached the previous state
+            invalidate(cbomReadModel);
         }
     }
 
+    @Override
+    public @Nonnull List<UUID> replace(@Nonnull CBOMReadModel cbomReadModel) {
+        return replaceAll(List.of(cbomReadModel));
+    }
+
+    @Override
+    public @Nonnull List<UUID> replaceAll(@Nonnull Collection<CBOMReadModel> cbomReadModels) {
+        final EntityManager entityManager = CBOMReadModel.getEntityManager();
+        final ArcContainer container = Arc.container();
+        container.requestContext().activate();
+        List<ReplacedReadModel> replaced = List.of();
+        try {
+            QuarkusTransaction.begin();
+            replaced = replace(entityManager, cbomReadModels);
+            QuarkusTransaction.commit();
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            replaced = List.of();
+            if (QuarkusTransaction.getStatus()
+                    != 6) { // https://github.com/quarkusio/quarkus/wiki/Migration-Guide-3.22#quarkustransactionisactive-deprecated
+                QuarkusTransaction.rollback();
+            }
+            throw new IllegalStateException("Could not store the CBOMs: " + e.getMessage(), e);
+        } finally {
+            container.requestContext().terminate();
+            invalidate(cbomReadModels, replaced);
+        }
+        return replaced.stream().map(ReplacedReadModel::id).toList();
+    }
+
     @Override
     public void delete(@Nonnull UUID uuid) {
         final EntityManager entityManager = CBOMReadModel.getEntityManager();
@@ -156,7 +398,11 @@ public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel
             final Optional<CBOMReadModel> cbomReadModel =
                     Optional.ofNullable(entityManager.find(CBOMReadModel.class, uuid));
             cbomReadModel.ifPresent(entityManager::remove);
+            cbomReadModel.ifPresent(
+                    removed ->
+                            replaceLatest(entityManager, removed.getRepository(), removed.getId()));
             QuarkusTransaction.commit();
+            cbomReadModel.ifPresent(this::invalidate);
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
             if (QuarkusTransaction.getStatus()
@@ -168,6 +414,33 @@ public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel
         }
     }
 
+    private @Nonnull Optional<CBOMReadModel> findCachedByProjectIdentifier(
+            @Nonnull String projectIdentifier, @Nullable Commit commit) {
+        final LookupKey key =
+                new LookupKey(
+                        LookupKey.PROJECT_IDENTIFIER,
+                        projectIdentifier,
+                        commit == null ? null : commit.hash(),
+                        null);
+        return Optional.ofNullable(
+                readModels.get(
+                        key, k -> findByProjectIdentifier(projectIdentifier, commit).orElse(null)));
+    }
+
+    /** Removes all cached lookups that could match the read model. */
+    private void invalidate(@Nonnull CBOMReadModel cbomReadModel) {
+        readModels
+                .asMap()
+                .keySet()
+                .removeIf(
+                        key ->
+                                key.matches(LookupKey.REPOSITORY, cbomReadModel.getRepository())
+                                        || key.matches(
+                                                LookupKey.PROJECT_IDENTIFIER,
+                                                cbomReadModel.getProjectIdentifier()));
+        documents.invalidate(cbomReadModel.getProjectIdentifier());
+    }
+
     private @Nonnull Optional<CBOMReadModel> findByRepository(
             @Nonnull String repository, @Nullable Commit commit, @Nullable Path packageFolder) {
         final EntityManager entityManager = CBOMReadModel.getEntityManager();
@@ -201,7 +474,8 @@ public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel
             if (packageFolder != null) {
                 query.setParameter("packageFolder", packageFolder.toString());
             }
-            final Optional<CBOMReadModel> match = query.getResultStream().findFirst();
+            final Optional<CBOMReadModel> match =
+                    query.setMaxResults(1).getResultStream().findFirst();
             QuarkusTransaction.commit();
             return match;
         } catch (Exception e) {
@@ -237,7 +511,7 @@ public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel
             if (commit != null) {
                 query.setParameter("commit", commit.hash());
             }
-            Optional<CBOMReadModel> match = query.getResultStream().findFirst();
+            Optional<CBOMReadModel> match = query.setMaxResults(1).getResultStream().findFirst();
             QuarkusTransaction.commit();
             return match;
         } catch (Exception e) {
@@ -251,4 +525,208 @@ public final class CBOMReadRepository extends ReadRepository<UUID, CBOMReadModel
         }
         return Optional.empty();
     }
+
+    private static int toKilobytes(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, bytes / 1024 + 1);
+    }
+
+    /** Estimates the heap size of a JSON tree from its number of nodes and its text. */
+    private static long estimateBytes(@Nonnull JsonNode root) {
+        long bytes = 0;
+        final Deque<JsonNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final JsonNode node = pending.pop();
+            bytes += 48;
+            if (node.isTextual()) {
+                bytes += 2L * node.textValue().length();
+            } else if (node.isObject()) {
+                for (Map.Entry<String, JsonNode> property : node.properties()) {
+                    bytes += 32 + 2L * property.getKey().length();
+                    pending.push(property.getValue());
+                }
+            } else {
+                node.elements().forEachRemaining(pending::push);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Key of a cached lookup by repository (and package folder) or by project identifier,
+     * optionally restricted to a commit.
+     */
+    private record LookupKey(
+            @Nonnull String column,
+            @Nonnull String value,
+            @Nullable String commit,
+            @Nullable String packageFolder) {
+        static final String REPOSITORY = "repository";
+        static final String PROJECT_IDENTIFIER = "projectIdentifier";
+
+        boolean matches(@Nonnull String column, @Nonnull String value) {
+            return this.column.equals(column) && this.value.equals(value);
+        }
+    }
+
+    /** Encodes the CBOM of the read model by the configured codec before it is written. */
+    private void encode(@Nonnull CBOMReadModel cbomReadModel) {
+        final byte[] bomData = this.cbomStorage.encode(cbomReadModel.getBom());
+        if (bomData != null) {
+            cbomReadModel.setEncodedBom(this.cbomStorage.getCodec(), bomData);
+        }
+    }
+
+    private record ReplacedReadModel(@Nonnull UUID id, @Nonnull String repository) {}
+
+    /**
+     * Deletes the read models of the projects of the given read models with one statement and
+     * inserts the given ones; the inserts are sent in JDBC batches on flush.
+     */
+    @Nonnull
+    private List<ReplacedReadModel> replace(
+            @Nonnull EntityManager entityManager,
+            @Nonnull Collection<CBOMReadModel> cbomReadModels) {
+        final List<String> projectIdentifiers =
+                cbomReadModels.stream().map(CBOMReadModel::getProjectIdentifier).toList();
+        final List<ReplacedReadModel> replaced =
+                entityManager
+                        .createQuery(
+                                "SELECT read.id, read.repository FROM CBOMReadModel read"
+                                        + " WHERE read.projectIdentifier IN :projectIdentifiers",
+                                Object[].class)
+                        .setParameter("projectIdentifiers", projectIdentifiers)
+                        .getResultStream()
+                        .map(row -> new ReplacedReadModel((UUID) row[0], (String) row[1]))
+                        .toList();
+        if (!replaced.isEmpty()) {
+            entityManager
+                    .createQuery("DELETE FROM CBOMReadModel read WHERE read.id IN :ids")
+                    .setParameter("ids", replaced.stream().map(ReplacedReadModel::id).toList())
+                    .executeUpdate();
+            for (ReplacedReadModel removed : replaced) {
+                replaceLatest(entityManager, removed.repository(), removed.id());
+            }
+        }
+        for (CBOMReadModel cbomReadModel : cbomReadModels) {
+            encode(cbomReadModel);
+            entityManager.persist(cbomReadModel);
+        }
+        // insert all read models before touching the latest table, so the inserts are batched
+        entityManager.flush();
+        for (CBOMReadModel cbomReadModel : cbomReadModels) {
+            updateLatest(entityManager, cbomReadModel);
+        }
+        return replaced;
+    }
+
+    private void invalidate(
+            @Nonnull Collection<CBOMReadModel> cbomReadModels,
+            @Nonnull Collection<ReplacedReadModel> replaced) {
+        cbomReadModels.forEach(this::invalidate);
+        for (ReplacedReadModel removed : replaced) {
+            readModels
+                    .asMap()
+                    .keySet()
+                    .removeIf(key -> key.matches(LookupKey.REPOSITORY, removed.repository()));
+        }
+    }
+
+    /**
+     * Makes the saved read model the latest of its repository, unless there is a newer one. The
+     * upsert is a single statement, so concurrent saves of the same repository cannot both insert
+     * the row or overwrite a newer read model.
+     */
+    private static void updateLatest(
+            @Nonnull EntityManager entityManager, @Nonnull CBOMReadModel cbomReadModel) {
+        entityManager
+                .createQuery(
+                        "INSERT INTO LatestCBOMReadModel latest (repository, cbomId, createdAt)"
+                                + " VALUES (:repository, :cbomId, :createdAt)"
+                                + " ON CONFLICT (repository) DO UPDATE"
+                                + " SET cbomId = excluded.cbomId, createdAt = excluded.createdAt"
+                                + " WHERE latest.createdAt <= excluded.createdAt")
+                .setParameter("repository", cbomReadModel.getRepository())
+                .setParameter("cbomId", cbomReadModel.getId())
+                .setParameter("createdAt", cbomReadModel.getCreatedAt())
+                .executeUpdate();
+    }
+
+    /** Replaces the deleted read model by the next most recent one of its repository. */
+    private static void replaceLatest(
+            @Nonnull EntityManager entityManager,
+            @Nonnull String repository,
+            @Nonnull UUID removedId) {
+        final LatestCBOMReadModel latest =
+                entityManager.find(LatestCBOMReadModel.class, repository);
+        if (latest == null || !latest.cbomId.equals(removedId)) {
+            return;
+        }
+        final Optional<Object[]> next =
+                entityManager
+                        .createQuery(
+                                "SELECT read.id, read.createdAt FROM CBOMReadModel read"
+                                        + " WHERE read.repository = :repository AND read.id <> :id"
+                                        + " ORDER BY read.createdAt DESC",
+                                Object[].class)
+                        .setParameter("repository", repository)
+                        .setParameter("id", removedId)
+                        .setMaxResults(1)
+                        .getResultStream()
+                        .findFirst();
+        if (next.isPresent()) {
+            latest.cbomId = (UUID) next.get()[0];
+            latest.createdAt = (Date) next.get()[1];
+        } else {
+            entityManager.remove(latest);
+        }
+    }
+
+    /** Builds the latest read models of all repositories, if they were not maintained before. */
+    private void backfillLatest() {
+        final EntityManager entityManager = CBOMReadModel.getEntityManager();
+        final ArcContainer container = Arc.container();
+        container.requestContext().activate();
+        try {
+            QuarkusTransaction.begin();
+            final long maintained =
+                    entityManager
+                            .createQuery(
+                                    "SELECT COUNT(latest) FROM LatestCBOMReadModel latest",
+                                    Long.class)
+                            .getSingleResult();
+            if (maintained == 0) {
+                final Map<String, LatestCBOMReadModel> latestByRepository = new HashMap<>();
+                entityManager
+                        .createQuery(
+                                "SELECT read.repository, read.id, read.createdAt"
+                                        + " FROM CBOMReadModel read",
+                                Object[].class)
+                        .getResultStream()
+                        .forEach(
+                                row ->
+                                        latestByRepository.merge(
+                                                (String) row[0],
+                                                new LatestCBOMReadModel(
+                                                        (String) row[0],
+                                                        (UUID) row[1],
+                                                        (Date) row[2]),
+                                                (current, candidate) ->
+                                                        candidate.createdAt.after(current.createdAt)
+                                                                ? candidate
+                                                                : current));
+                latestByRepository.values().forEach(entityManager::persist);
+                LOGGER.info("Built latest CBOMs of {} repositories", latestByRepository.size());
+            }
+            QuarkusTransaction.commit();
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            if (QuarkusTransaction.getStatus()
+                    != 6) { // https://github.com/quarkusio/quarkus/wiki/Migration-Guide-3.22#quarkustransactionisactive-deprecated
+                QuarkusTransaction.rollback();
+            }
+        } finally {
+            container.requestContext().terminate();
+        }
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.database.readmodels;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.Date;
+import java.util.UUID;
+
+/** The metadata of a stored CBOM, selected without the CBOM itself. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({
+    "projectIdentifier",
+    "gitUrl",
+    "branch",
+    "packageFolder",
+    "commit",
+    "createdAt",
+    "numberOfComponents",
+    "numberOfCryptographicAssets",
+    "compliant"
+})
+public record CBOMSummary(
+        @JsonIgnore @Nonnull UUID id,
+        @Nonnull @JsonProperty("projectIdentifier") String projectIdentifier,
+        @Nonnull @JsonProperty("gitUrl") String repository,
+        @Nullable @JsonProperty("branch") String revision,
+        @Nullable @JsonProperty("packageFolder") String packageFolder,
+        @Nullable @JsonProperty("commit") String commit,
+        @Nonnull @JsonProperty("createdAt") Date createdAt,
+        @Nullable @JsonProperty("numberOfComponents") Integer numberOfComponents,
+        @Nullable @JsonProperty("numberOfCryptographicAssets") Integer numberOfCryptographicAssets,
+        @Nullable @JsonProperty("compliant") Boolean compliant) {}
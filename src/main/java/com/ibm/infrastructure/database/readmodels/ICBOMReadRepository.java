@@ -26,7 +26,9 @@ import com.ibm.domain.scanning.GitUrl;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -50,6 +52,50 @@ public interface ICBOMReadRepository extends IReadRepository<UUID, CBOMReadModel
     @Nonnull
     Optional<CBOMReadModel> findBy(@Nonnull String projectIdentifier);
 
+    /**
+     * Stores the read model in place of all read models of the same project, in one transaction.
+     *
+     * @return the ids of the replaced read models
+     * @throws IllegalStateException if the transaction failed, the read model is not stored
+     */
+    @Nonnull
+    List<UUID> replace(@Nonnull CBOMReadModel cbomReadModel);
+
+    /**
+     * Stores the read models in place of all read models of their projects, in one transaction.
+     * The read models must belong to distinct projects.
+     *
+     * @return the ids of the replaced read models
+     * @throws IllegalStateException if the transaction failed, none of the read models is stored
+     */
+    @Nonnull
+    List<UUID> replaceAll(@Nonnull Collection<CBOMReadModel> cbomReadModels);
+
+    /** Returns the latest CBOM of the project with the CBOM as JSON text. */
+    @Nonnull
+    Optional<CBOMDocument> findDocumentBy(@Nonnull String projectIdentifier);
+
+    /** Returns the latest CBOM of each of the most recently scanned repositories. */
+    @Nonnull
+    Collection<CBOMDocument> getRecent(int limit);
+
+    /**
+     * Returns the summaries of the latest CBOM of each repository, most recent first.
+     *
+     * @param limit the maximum number of summaries
+     * @param after the position after which to continue (optional)
+     */
+    @Nonnull
+    List<CBOMSummary> getRecentSummaries(int limit, @Nullable CBOMSummaryCursor after);
+
+    /**
+     * Returns the identifiers of the projects with stored CBOMs, in alphabetical order.
+     *
+     * @param gitUrlPrefix the prefix of the git url of the projects (optional)
+     * @param createdAfter the time after which a CBOM of the project was stored (optional)
+     * @param limit the maximum number of identifiers
+     */
     @Nonnull
-    Collection<CBOMReadModel> getRecent(int limit);
+    List<String> findProjectIdentifiers(
+            @Nullable String gitUrlPrefix, @Nullable Instant createdAfter, int limit);
 }
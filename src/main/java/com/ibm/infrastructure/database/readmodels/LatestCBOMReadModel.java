@@ -0,0 +1,49 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.database.readmodels;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * The latest {@link CBOMReadModel} of each repository, maintained by the {@link
+ * CBOMReadRepository} whenever a read model is saved or deleted.
+ */
+@Entity
+@Table(indexes = @Index(name = "latest_cbom_created_at_idx", columnList = "createdAt, cbomId"))
+class LatestCBOMReadModel extends PanacheEntityBase {
+    @Id @Nonnull public String repository;
+    @Nonnull public UUID cbomId;
+    @Nonnull public Date createdAt;
+
+    protected LatestCBOMReadModel() {}
+
+    LatestCBOMReadModel(@Nonnull String repository, @Nonnull UUID cbomId, @Nonnull Date createdAt) {
+        this.repository = repository;
+        this.cbomId = cbomId;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.Nonnull;
+import java.lang.ref.WeakReference;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The resulting CBOM of a scan as kept by the {@link ProgressJournal}. The journal does not keep
+ * the CBOM alive; once it has been garbage collected, it is loaded again (e.g. from the stored
+ * read model) for clients that replay the progress of the scan.
+ */
+public final class CBOMReference {
+    @Nonnull private final WeakReference<JsonNode> cbom;
+    @Nonnull private final Supplier<Optional<JsonNode>> loader;
+
+    public CBOMReference(@Nonnull JsonNode cbom, @Nonnull Supplier<Optional<JsonNode>> loader) {
+        this.cbom = new WeakReference<>(cbom);
+        this.loader = loader;
+    }
+
+    @Nonnull
+    public Optional<JsonNode> get() {
+        return Optional.ofNullable(this.cbom.get()).or(this.loader);
+    }
+}
@@ -19,14 +19,19 @@
  */
 package com.ibm.infrastructure.progress;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.annotation.Nonnull;
-import org.pqca.progress.IProgressDispatcher;
 import org.pqca.progress.ProgressMessage;
 
-public class EmptyProgressDispatcher implements IProgressDispatcher {
+public class EmptyProgressDispatcher implements IStreamingProgressDispatcher {
 
     @Override
     public void send(@Nonnull ProgressMessage message) {
         // do nothing
     }
+
+    @Override
+    public void sendCBOM(@Nonnull JsonNode cbom) {
+        // do nothing
+    }
 }
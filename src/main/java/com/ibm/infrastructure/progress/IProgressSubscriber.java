@@ -0,0 +1,34 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Receives the entries of a progress journal. The callbacks are invoked while the journal is
+ * locked and must therefore not block. A subscriber that throws a runtime exception from {@link
+ * #onEntry} is unsubscribed.
+ */
+public interface IProgressSubscriber {
+
+    void onEntry(@Nonnull ProgressEntry entry);
+
+    void onComplete();
+}
@@ -0,0 +1,50 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.Nonnull;
+import org.pqca.errors.ClientDisconnected;
+import org.pqca.progress.IProgressDispatcher;
+import org.pqca.progress.ProgressMessage;
+import org.pqca.progress.ProgressMessageType;
+
+/**
+ * A progress dispatcher that sends the resulting CBOM without serializing it into a string first.
+ * The message seen by the client is the same as for a {@link ProgressMessageType#CBOM} progress
+ * message.
+ */
+public interface IStreamingProgressDispatcher extends IProgressDispatcher {
+
+    void sendCBOM(@Nonnull JsonNode cbom) throws ClientDisconnected;
+
+    /**
+     * Sends the CBOM through the given dispatcher, streaming it if the dispatcher supports it and
+     * falling back to a {@link ProgressMessageType#CBOM} progress message otherwise.
+     */
+    static void sendCBOM(@Nonnull IProgressDispatcher progressDispatcher, @Nonnull JsonNode cbom)
+            throws ClientDisconnected {
+        if (progressDispatcher instanceof IStreamingProgressDispatcher streamingDispatcher) {
+            streamingDispatcher.sendCBOM(cbom);
+        } else {
+            progressDispatcher.send(new ProgressMessage(ProgressMessageType.CBOM, cbom.toString()));
+        }
+    }
+}
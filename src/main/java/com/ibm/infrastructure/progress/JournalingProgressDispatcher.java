@@ -0,0 +1,112 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.domain.scanning.ScanId;
+import jakarta.annotation.Nonnull;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.pqca.errors.ClientDisconnected;
+import org.pqca.progress.IProgressDispatcher;
+import org.pqca.progress.ProgressMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the progress of a scan in the {@link ProgressJournal} before forwarding it to the client
+ * that requested the scan. As other clients can follow the scan through the journal, and the
+ * requester can resume it after reconnecting, a disconnected requester does not abort the scan.
+ * The scheduler drops the scan if it is still queued, see {@link #isRequesterDisconnected()}.
+ *
+ * <p>A websocket requester receives the journaled entries, i.e. each message carries its sequence
+ * number, so that the client knows where to resume.
+ */
+public final class JournalingProgressDispatcher implements IStreamingProgressDispatcher {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(JournalingProgressDispatcher.class);
+
+    @Nonnull private final ScanId scanId;
+    @Nonnull private final ProgressJournal progressJournal;
+    @Nonnull private final IProgressDispatcher delegate;
+    @Nonnull private final Supplier<Optional<JsonNode>> cbomLoader;
+    private volatile boolean delegateDisconnected;
+
+    public JournalingProgressDispatcher(
+            @Nonnull ScanId scanId,
+            @Nonnull ProgressJournal progressJournal,
+            @Nonnull IProgressDispatcher delegate,
+            @Nonnull Supplier<Optional<JsonNode>> cbomLoader) {
+        this.scanId = scanId;
+        this.progressJournal = progressJournal;
+        this.delegate = delegate;
+        this.cbomLoader = cbomLoader;
+    }
+
+    /** Returns true once sending to the client that requested the scan has failed. */
+    public boolean isRequesterDisconnected() {
+        return this.delegateDisconnected;
+    }
+
+    @Override
+    public void send(@Nonnull ProgressMessage progressMessage) {
+        final Optional<ProgressEntry> entry =
+                this.progressJournal.append(this.scanId, progressMessage);
+        if (this.delegateDisconnected) {
+            return;
+        }
+        try {
+            if (entry.isPresent()
+                    && this.delegate instanceof WebSocketProgressDispatcher webSocketDispatcher) {
+                webSocketDispatcher.send(entry.get());
+            } else {
+                this.delegate.send(progressMessage);
+            }
+        } catch (ClientDisconnected e) {
+            this.delegateDisconnected = true;
+            LOGGER.info("Client of scan {} disconnected, progress is kept", this.scanId.getUuid());
+        }
+    }
+
+    /**
+     * Journals a reference to the CBOM, which is loaded with the given loader once the CBOM has
+     * been garbage collected, and streams the CBOM to the client.
+     */
+    @Override
+    public void sendCBOM(@Nonnull JsonNode cbom) {
+        final Optional<ProgressEntry> entry =
+                this.progressJournal.appendCBOM(
+                        this.scanId, new CBOMReference(cbom, this.cbomLoader));
+        if (this.delegateDisconnected) {
+            return;
+        }
+        try {
+            if (entry.isPresent()
+                    && this.delegate instanceof WebSocketProgressDispatcher webSocketDispatcher) {
+                webSocketDispatcher.send(entry.get());
+            } else {
+                IStreamingProgressDispatcher.sendCBOM(this.delegate, cbom);
+            }
+        } catch (ClientDisconnected e) {
+            this.delegateDisconnected = true;
+            LOGGER.info("Client of scan {} disconnected, progress is kept", this.scanId.getUuid());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escapes everything written to it as the content of a JSON string. Used to embed a serialized
+ * CBOM into the {@code message} property of a progress message without building the string in
+ * memory. Closing this writer does not close the underlying writer.
+ */
+final class JsonStringWriter extends Writer {
+    @Nonnull private final Writer target;
+
+    JsonStringWriter(@Nonnull Writer target) {
+        this.target = target;
+    }
+
+    @Override
+    public void write(@Nonnull char[] buffer, int offset, int length) throws IOException {
+        // escaping is per character, so chunks can be escaped independently
+        this.target.write(
+                JsonStringEncoder.getInstance()
+                        .quoteAsString(new String(buffer, offset, length)));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flush();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.pqca.progress.ProgressMessage;
+import org.pqca.progress.ProgressMessageType;
+
+/**
+ * A progress message of a scan together with its position in the scan's progress journal. For the
+ * resulting CBOM, the message is of type {@link ProgressMessageType#CBOM} without content and the
+ * CBOM is referenced by {@link #cbom()}.
+ */
+public record ProgressEntry(
+        long sequence, @Nonnull ProgressMessage message, @Nullable CBOMReference cbom) {
+
+    public ProgressEntry(long sequence, @Nonnull ProgressMessage message) {
+        this(sequence, message, null);
+    }
+}
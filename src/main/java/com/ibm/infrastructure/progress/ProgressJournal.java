@@ -0,0 +1,267 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import com.ibm.domain.scanning.ScanId;
+import com.ibm.infrastructure.IDispatchConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.pqca.progress.ProgressMessage;
+import org.pqca.progress.ProgressMessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the progress messages of recent scans in memory, so that any number of clients can follow
+ * a scan and resume from the last message they have seen after a reconnect. The journal of a scan
+ * is bounded in size (the oldest labels are dropped first) and evicted after it has been completed
+ * for {@link IDispatchConfiguration#getProgressJournalRetention()}.
+ */
+@Singleton
+public final class ProgressJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressJournal.class);
+
+    private final int maxEntries;
+    private final int maxScans;
+    private final long retentionNanos;
+
+    // guarded by this, in order of creation
+    @Nonnull private final Map<UUID, Journal> journals;
+
+    public ProgressJournal(
+            @Nonnull IDispatchConfiguration configuration, @Nonnull MeterRegistry meterRegistry) {
+        this.maxEntries = configuration.getProgressJournalMaxEntries();
+        this.maxScans = configuration.getProgressJournalMaxScans();
+        this.retentionNanos = configuration.getProgressJournalRetention().toNanos();
+        this.journals = new LinkedHashMap<>();
+
+        Gauge.builder("cbomkit.progress.journal.scans", this, ProgressJournal::size)
+                .description("Number of scans whose progress is kept in memory")
+                .register(meterRegistry);
+    }
+
+    /** Creates the journal of a scan, evicting expired journals. */
+    public void open(@Nonnull ScanId scanId) {
+        synchronized (this) {
+            this.evict();
+            this.journals.computeIfAbsent(scanId.getUuid(), uuid -> new Journal(this.maxEntries));
+        }
+    }
+
+    /**
+     * Appends a message to the journal of a scan and forwards it to the subscribers.
+     *
+     * @return the journaled entry, or empty if the scan has no open journal
+     */
+    @Nonnull
+    public Optional<ProgressEntry> append(
+            @Nonnull ScanId scanId, @Nonnull ProgressMessage progressMessage) {
+        return Optional.ofNullable(this.get(scanId))
+                .map(journal -> journal.append(progressMessage, null));
+    }
+
+    /**
+     * Appends the resulting CBOM of a scan to its journal and forwards it to the subscribers.
+     *
+     * @return the journaled entry, or empty if the scan has no open journal
+     */
+    @Nonnull
+    public Optional<ProgressEntry> appendCBOM(
+            @Nonnull ScanId scanId, @Nonnull CBOMReference cbom) {
+        return Optional.ofNullable(this.get(scanId))
+                .map(
+                        journal ->
+                                journal.append(
+                                        new ProgressMessage(ProgressMessageType.CBOM, ""), cbom));
+    }
+
+    /**
+     * Marks the journal of a scan as complete. Subscribers are notified and the journal is kept
+     * for the configured retention time.
+     */
+    public void complete(@Nonnull ScanId scanId) {
+        final Journal journal = this.get(scanId);
+        if (journal != null) {
+            journal.complete(System.nanoTime());
+        }
+    }
+
+    /**
+     * Replays the messages of a scan starting at the given sequence number to the subscriber, and
+     * forwards all further messages until the scan completes.
+     *
+     * @return a handle to cancel the subscription, or empty if the progress of the scan is not
+     *     (or no longer) known
+     */
+    @Nonnull
+    public Optional<Runnable> subscribe(
+            @Nonnull ScanId scanId, long fromSequence, @Nonnull IProgressSubscriber subscriber) {
+        return Optional.ofNullable(this.get(scanId))
+                .map(journal -> journal.subscribe(fromSequence, subscriber));
+    }
+
+    @Nullable private Journal get(@Nonnull ScanId scanId) {
+        synchronized (this) {
+            return this.journals.get(scanId.getUuid());
+        }
+    }
+
+    private int size() {
+        synchronized (this) {
+            return this.journals.size();
+        }
+    }
+
+    // requires the lock on this
+    private void evict() {
+        final long now = System.nanoTime();
+        this.journals.values().removeIf(journal -> journal.isExpired(now, this.retentionNanos));
+        // make room for the new journal, completed scans are evicted before running ones
+        final Iterator<Journal> completed = this.journals.values().iterator();
+        while (this.journals.size() >= this.maxScans && completed.hasNext()) {
+            if (completed.next().isCompleted()) {
+                completed.remove();
+            }
+        }
+        final Iterator<Map.Entry<UUID, Journal>> oldest = this.journals.entrySet().iterator();
+        while (this.journals.size() >= this.maxScans && oldest.hasNext()) {
+            final Map.Entry<UUID, Journal> entry = oldest.next();
+            oldest.remove();
+            entry.getValue().complete(now);
+            LOGGER.warn("Evicted progress of running scan {}", entry.getKey());
+        }
+    }
+
+    private static final class Journal {
+        private final int maxEntries;
+
+        // guarded by this
+        @Nonnull private final Deque<ProgressEntry> entries;
+        @Nonnull private final List<IProgressSubscriber> subscribers;
+        private long nextSequence;
+        private boolean completed;
+        private long completedAt;
+
+        Journal(int maxEntries) {
+            this.maxEntries = maxEntries;
+            this.entries = new ArrayDeque<>();
+            this.subscribers = new ArrayList<>();
+        }
+
+        /** Returns the appended entry, or null if the journal is already complete. */
+        @Nullable synchronized ProgressEntry append(
+                @Nonnull ProgressMessage progressMessage, @Nullable CBOMReference cbom) {
+            if (this.completed) {
+                return null;
+            }
+            final ProgressEntry entry =
+                    new ProgressEntry(this.nextSequence++, progressMessage, cbom);
+            this.entries.addLast(entry);
+            if (this.entries.size() > this.maxEntries) {
+                this.trim();
+            }
+            for (IProgressSubscriber subscriber : List.copyOf(this.subscribers)) {
+                this.deliver(subscriber, entry);
+            }
+            return entry;
+        }
+
+        @Nonnull
+        synchronized Runnable subscribe(
+                long fromSequence, @Nonnull IProgressSubscriber subscriber) {
+            for (ProgressEntry entry : this.entries) {
+                if (entry.sequence() >= fromSequence && !this.deliver(subscriber, entry)) {
+                    return () -> {};
+                }
+            }
+            if (this.completed) {
+                subscriber.onComplete();
+                return () -> {};
+            }
+            this.subscribers.add(subscriber);
+            return () -> this.unsubscribe(subscriber);
+        }
+
+        synchronized void complete(long now) {
+            if (this.completed) {
+                return;
+            }
+            this.completed = true;
+            this.completedAt = now;
+            for (IProgressSubscriber subscriber : List.copyOf(this.subscribers)) {
+                try {
+                    subscriber.onComplete();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not complete subscriber: {}", e.getMessage());
+                }
+            }
+            this.subscribers.clear();
+        }
+
+        synchronized boolean isCompleted() {
+            return this.completed;
+        }
+
+        synchronized boolean isExpired(long now, long retentionNanos) {
+            return this.completed && now - this.completedAt > retentionNanos;
+        }
+
+        private synchronized void unsubscribe(@Nonnull IProgressSubscriber subscriber) {
+            this.subscribers.remove(subscriber);
+        }
+
+        /** Returns false if the subscriber failed and was removed. */
+        private boolean deliver(
+                @Nonnull IProgressSubscriber subscriber, @Nonnull ProgressEntry entry) {
+            try {
+                subscriber.onEntry(entry);
+                return true;
+            } catch (RuntimeException e) {
+                LOGGER.info("Removed progress subscriber: {}", e.getMessage());
+                this.subscribers.remove(subscriber);
+                return false;
+            }
+        }
+
+        /** Drops the oldest label, or the oldest message if there are only results left. */
+        private void trim() {
+            final Iterator<ProgressEntry> iterator = this.entries.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().message().type() == ProgressMessageType.LABEL) {
+                    iterator.remove();
+                    return;
+                }
+            }
+            this.entries.pollFirst();
+        }
+    }
+}
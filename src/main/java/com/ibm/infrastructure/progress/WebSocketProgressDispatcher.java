@@ -19,58 +19,185 @@
  */
 package com.ibm.infrastructure.progress;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jakarta.websocket.Session;
 import java.io.IOException;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
 import org.pqca.errors.ClientDisconnected;
-import org.pqca.progress.IProgressDispatcher;
 import org.pqca.progress.ProgressMessage;
+import org.pqca.progress.ProgressMessageType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public final class WebSocketProgressDispatcher implements IProgressDispatcher {
+/**
+ * Sends progress messages to a websocket client without blocking the sender. Messages are
+ * buffered per session and written by a single virtual thread. Consecutive labels are coalesced,
+ * as only the latest one is displayed, and labels are dropped first if the client cannot keep up.
+ * A failed write is reported as {@link ClientDisconnected} on the next call to {@link #send}.
+ *
+ * <p>Messages journaled by the {@link ProgressJournal} carry their sequence number as an
+ * additional {@code sequence} property, which clients pass back to resume after a reconnect. The
+ * resulting CBOM is streamed from its JSON tree as a fragmented text message.
+ */
+public final class WebSocketProgressDispatcher implements IStreamingProgressDispatcher {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketProgressDispatcher.class);
+    private static final int BUFFER_CAPACITY = 256;
+    private static final long NO_SEQUENCE = -1;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ProgressMessage CBOM_MESSAGE =
+            new ProgressMessage(ProgressMessageType.CBOM, "");
 
     @Nonnull private final Session session;
 
+    // guarded by this
+    @Nonnull private final Deque<Frame> buffer;
+    private boolean writing;
+    private boolean disconnected;
+
     public WebSocketProgressDispatcher(@Nonnull Session session) {
         this.session = session;
+        this.buffer = new ArrayDeque<>();
     }
 
     @Override
     public void send(@Nonnull ProgressMessage progressMessage) throws ClientDisconnected {
-        try {
-            // send
-            final CountDownLatch errorLatch = new CountDownLatch(1);
-            final AtomicBoolean errOccurred = new AtomicBoolean(false);
-            session.getAsyncRemote()
-                    .sendObject(
-                            progressMessage.asJSONString(),
-                            sendResult -> {
-                                if (sendResult.getException() != null) {
-                                    errOccurred.set(true);
-                                    errorLatch.countDown();
-                                    try {
-                                        session.close();
-                                    } catch (IOException e) {
-                                        LOGGER.error(e.getLocalizedMessage());
-                                    }
-                                } else {
-                                    errorLatch.countDown();
-                                }
-                            });
-            errorLatch.await();
-            if (errOccurred.get()) {
+        this.send(new Frame(progressMessage, NO_SEQUENCE, null));
+    }
+
+    @Override
+    public void sendCBOM(@Nonnull JsonNode cbom) throws ClientDisconnected {
+        this.send(new Frame(CBOM_MESSAGE, NO_SEQUENCE, cbom));
+    }
+
+    /** Sends a journaled progress message together with its sequence number. */
+    public void send(@Nonnull ProgressEntry progressEntry) throws ClientDisconnected {
+        if (progressEntry.cbom() == null) {
+            this.send(new Frame(progressEntry.message(), progressEntry.sequence(), null));
+            return;
+        }
+        final Optional<JsonNode> cbom = progressEntry.cbom().get();
+        if (cbom.isPresent()) {
+            this.send(new Frame(CBOM_MESSAGE, progressEntry.sequence(), cbom.get()));
+        } else {
+            this.send(
+                    new Frame(
+                            new ProgressMessage(
+                                    ProgressMessageType.WARNING, "The CBOM is no longer available"),
+                            progressEntry.sequence(),
+                            null));
+        }
+    }
+
+    private void send(@Nonnull Frame frame) throws ClientDisconnected {
+        synchronized (this) {
+            if (this.disconnected || !this.session.isOpen()) {
+                this.disconnected = true;
                 throw new ClientDisconnected("Client disconnected " + session.getId());
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ClientDisconnected(e.getLocalizedMessage());
-        } catch (JsonProcessingException e) {
-            LOGGER.error(e.getLocalizedMessage());
+            enqueue(frame);
+            if (this.writing) {
+                return;
+            }
+            this.writing = true;
+        }
+        Thread.ofVirtual().name("websocket-progress-" + session.getId()).start(this::drain);
+    }
+
+    private void enqueue(@Nonnull Frame frame) {
+        final boolean droppable = isDroppable(frame);
+        // a queued label is superseded by the next one
+        if (frame.message().type() == ProgressMessageType.LABEL
+                && !this.buffer.isEmpty()
+                && this.buffer.peekLast().message().type() == ProgressMessageType.LABEL) {
+            this.buffer.pollLast();
+        }
+        if (this.buffer.size() >= BUFFER_CAPACITY) {
+            if (droppable) {
+                return;
+            }
+            // make room by dropping the oldest droppable message; results and errors are
+            // always delivered, even if the buffer is exceeded
+            final Iterator<Frame> iterator = this.buffer.iterator();
+            while (iterator.hasNext()) {
+                if (isDroppable(iterator.next())) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+        this.buffer.addLast(frame);
+    }
+
+    private void drain() {
+        while (true) {
+            final Frame next;
+            synchronized (this) {
+                next = this.buffer.pollFirst();
+                if (next == null || this.disconnected) {
+                    this.writing = false;
+                    return;
+                }
+            }
+            try {
+                next.writeTo(this.session);
+            } catch (JsonProcessingException e) {
+                LOGGER.error(e.getLocalizedMessage());
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.warn("Could not send progress to {}: {}", session.getId(), e.getMessage());
+                synchronized (this) {
+                    this.disconnected = true;
+                    this.buffer.clear();
+                }
+                try {
+                    this.session.close();
+                } catch (IOException closeException) {
+                    LOGGER.error(closeException.getLocalizedMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean isDroppable(@Nonnull Frame frame) {
+        return frame.message().type() == ProgressMessageType.LABEL;
+    }
+
+    private record Frame(
+            @Nonnull ProgressMessage message, long sequence, @Nullable JsonNode cbom) {
+
+        void writeTo(@Nonnull Session session) throws IOException {
+            if (cbom == null) {
+                session.getBasicRemote().sendText(asJSONString());
+                return;
+            }
+            // same structure as a CBOM progress message, the CBOM is written as escaped string
+            try (Writer writer = session.getBasicRemote().getSendWriter()) {
+                writer.write("{\"type\":\"" + ProgressMessageType.CBOM + "\",\"message\":\"");
+                try (JsonGenerator generator =
+                        OBJECT_MAPPER.getFactory().createGenerator(new JsonStringWriter(writer))) {
+                    OBJECT_MAPPER.writeTree(generator, cbom);
+                }
+                writer.write(sequence == NO_SEQUENCE ? "\"}" : "\",\"sequence\":" + sequence + "}");
+            }
+        }
+
+        @Nonnull
+        private String asJSONString() throws JsonProcessingException {
+            if (sequence == NO_SEQUENCE) {
+                return message.asJSONString();
+            }
+            final ObjectNode node = (ObjectNode) OBJECT_MAPPER.readTree(message.asJSONString());
+            node.put("sequence", sequence);
+            return OBJECT_MAPPER.writeValueAsString(node);
         }
     }
 }
@@ -20,6 +20,7 @@
 package com.ibm.infrastructure.scanning;
 
 import jakarta.annotation.Nonnull;
+import java.time.Duration;
 
 public interface IScanConfiguration {
 
@@ -28,4 +29,52 @@ public interface IScanConfiguration {
 
     @Nonnull
     String getJavaDependencyJARSPath();
+
+    /**
+     * Returns the maximum number of language scanners that are executed concurrently for a
+     * single scan.
+     */
+    int getLanguageScanParallelism();
+
+    /** Returns the directory in which the bare mirrors of scanned Git repositories are kept. */
+    @Nonnull
+    String getGitMirrorDirPath();
+
+    /**
+     * Returns the disk budget of the Git mirror cache in bytes. Least recently used mirrors are
+     * evicted when the budget is exceeded, 0 disables the cache.
+     */
+    long getGitMirrorCacheMaxBytes();
+
+    /**
+     * Returns true if repositories are cloned with depth 1 at the requested revision instead of
+     * downloading the full history.
+     */
+    boolean isShallowCloneEnabled();
+
+    /**
+     * Returns the version of the scanners. Results of previous scans are only reused if they were
+     * produced by the same version.
+     */
+    @Nonnull
+    String getScannerVersion();
+
+    /**
+     * Returns true if only the modules changed since the previous scan of a repository are
+     * rescanned and merged into its CBOM.
+     */
+    boolean isIncrementalScanEnabled();
+
+    /** Returns the maximum number of scans that run at the same time. */
+    int getMaxConcurrentScans();
+
+    /** Returns the maximum number of waiting scans before new scan requests are rejected. */
+    int getScanQueueCapacity();
+
+    /**
+     * Returns how long a running scan may wait for its next step. A scan whose next step was lost
+     * (e.g. a failed dispatch) is aborted after this time, so that it releases its slot.
+     */
+    @Nonnull
+    Duration getScanStallTimeout();
 }
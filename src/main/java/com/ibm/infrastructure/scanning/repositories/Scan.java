@@ -19,17 +19,10 @@
  */
 package com.ibm.infrastructure.scanning.repositories;
 
-import com.github.packageurl.MalformedPackageURLException;
-import com.github.packageurl.PackageURL;
-import com.ibm.domain.scanning.Commit;
-import com.ibm.domain.scanning.GitUrl;
 import com.ibm.domain.scanning.Language;
 import com.ibm.domain.scanning.LanguageScan;
-import com.ibm.domain.scanning.Revision;
 import com.ibm.domain.scanning.ScanAggregate;
-import com.ibm.domain.scanning.ScanId;
-import com.ibm.domain.scanning.ScanMetadata;
-import com.ibm.infrastructure.errors.AggregateReconstructionFailed;
+import com.ibm.infrastructure.database.codec.CBOMStorage;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -39,16 +32,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.pqca.errors.CBOMSerializationFailed;
-import org.pqca.scanning.CBOM;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,20 +55,27 @@ class Scan extends PanacheEntityBase {
     @Nullable public String packageFolder;
     @Nullable public String commitHash;
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Nonnull
     public Collection<ScanResult> scanResults;
 
     protected Scan() {}
 
-    Scan(@Nonnull ScanAggregate aggregate) {
+    /**
+     * Creates the entity of the aggregate. The results of a language are written once, a stored
+     * result is reused instead of serializing the CBOM of the language scan again.
+     */
+    Scan(
+            @Nonnull ScanAggregate aggregate,
+            @Nonnull Map<Language, ScanResult> storedResults,
+            @Nonnull CBOMStorage cbomStorage) {
         this.id = aggregate.getId().getUuid();
-        this.gitUrl = aggregate.getGitUrl().map(GitUrl::value).orElse(null);
-        final PackageURL packageURL = aggregate.getPurl().orElse(null);
-        this.purl = Optional.ofNullable(packageURL).map(PackageURL::canonicalize).orElse(null);
-        this.revision = aggregate.getRevision().value();
-        this.packageFolder = aggregate.getPackageFolder().map(Path::toString).orElse(null);
-        this.commitHash = aggregate.getCommit().map(Commit::hash).orElse(null);
+        final ScanSnapshot.State state = ScanSnapshot.State.of(aggregate);
+        this.gitUrl = state.gitUrl();
+        this.purl = state.purl();
+        this.revision = state.revision();
+        this.packageFolder = state.packageFolder();
+        this.commitHash = state.commitHash();
 
         final Optional<List<LanguageScan>> languageScans = aggregate.getLanguageScans();
         if (languageScans.isEmpty()) {
@@ -88,57 +85,17 @@ class Scan extends PanacheEntityBase {
 
         final List<ScanResult> scanResultList = new ArrayList<>();
         for (LanguageScan languageScan : languageScans.get()) {
+            final ScanResult storedResult = storedResults.get(languageScan.language());
+            if (storedResult != null) {
+                scanResultList.add(storedResult);
+                continue;
+            }
             try {
-                final ScanResult scanResult =
-                        new ScanResult(
-                                languageScan.language(),
-                                languageScan.scanMetadata().startTime(),
-                                languageScan.scanMetadata().endTime(),
-                                languageScan.scanMetadata().numberOfScannedLines(),
-                                languageScan.scanMetadata().numberOfScannedFiles(),
-                                languageScan.cbom().toJSON());
-                scanResultList.add(scanResult);
+                scanResultList.add(ScanResult.of(languageScan, cbomStorage));
             } catch (CBOMSerializationFailed e) {
                 LOGGER.error(e.getMessage());
             }
         }
         this.scanResults = scanResultList;
     }
-
-    @Nonnull
-    protected ScanAggregate asAggregate() throws AggregateReconstructionFailed {
-        try {
-            final Map<Language, LanguageScan> languageScans = new EnumMap<>(Language.class);
-            for (ScanResult scanResult : scanResults) {
-                final LanguageScan languageScan =
-                        new LanguageScan(
-                                scanResult.language,
-                                new ScanMetadata(
-                                        scanResult.startTime.getTime(),
-                                        scanResult.endTime.getTime(),
-                                        scanResult.numberOfScannedLines,
-                                        scanResult.numberOfScannedFiles),
-                                CBOM.formJSON(scanResult.cbom));
-                languageScans.put(languageScan.language(), languageScan);
-            }
-
-            Optional<PackageURL> optionalPackageURL = Optional.empty();
-            if (this.purl != null) {
-                optionalPackageURL = Optional.of(new PackageURL(purl));
-            }
-
-            return ScanAggregate.reconstruct(
-                    new ScanId(this.id),
-                    Optional.ofNullable(this.gitUrl).map(GitUrl::new).orElse(null),
-                    optionalPackageURL.orElse(null),
-                    Optional.ofNullable(this.revision)
-                            .map(Revision::new)
-                            .orElse(ScanAggregate.REVISION_MAIN),
-                    Optional.ofNullable(this.packageFolder).map(Path::of).orElse(null),
-                    Optional.ofNullable(this.commitHash).map(Commit::new).orElse(null),
-                    languageScans);
-        } catch (MalformedPackageURLException | CBOMSerializationFailed e) {
-            throw new AggregateReconstructionFailed(e);
-        }
-    }
 }
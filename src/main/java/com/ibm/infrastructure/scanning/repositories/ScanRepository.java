@@ -21,8 +21,15 @@ package com.ibm.infrastructure.scanning.repositories;
 
 import app.bootstrap.core.ddd.IDomainEventBus;
 import app.bootstrap.core.ddd.Repository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibm.domain.scanning.Language;
+import com.ibm.domain.scanning.LanguageScan;
 import com.ibm.domain.scanning.ScanAggregate;
 import com.ibm.domain.scanning.ScanId;
+import com.ibm.infrastructure.database.codec.CBOMCodec;
+import com.ibm.infrastructure.database.codec.CBOMStorage;
 import com.ibm.infrastructure.errors.EntityNotFoundById;
 import io.quarkus.arc.Arc;
 import io.quarkus.arc.ArcContainer;
@@ -32,7 +39,15 @@ import jakarta.annotation.Nonnull;
 import jakarta.inject.Singleton;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Status;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import org.pqca.errors.CBOMSerializationFailed;
+import org.pqca.scanning.CBOM;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,25 +56,51 @@ public final class ScanRepository extends Repository<ScanId, ScanAggregate>
         implements PanacheRepository<Scan> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ScanRepository.class);
 
-    public ScanRepository(@Nonnull IDomainEventBus domainEventBus) {
+    // snapshots of the scans read or saved recently, a running scan is read and saved by each of
+    // its stages. The CBOMs are not part of the snapshot, they are loaded when accessed.
+    @Nonnull
+    private final Cache<UUID, ScanSnapshot> snapshots =
+            Caffeine.newBuilder()
+                    .maximumSize(1000)
+                    .expireAfterAccess(Duration.ofMinutes(30))
+                    .build();
+
+    @Nonnull private final CBOMStorage cbomStorage;
+
+    public ScanRepository(
+            @Nonnull IDomainEventBus domainEventBus, @Nonnull CBOMStorage cbomStorage) {
         super(domainEventBus);
+        this.cbomStorage = cbomStorage;
     }
 
     @Nonnull
     @Override
     public Optional<ScanAggregate> read(@Nonnull ScanId id) {
+        final ScanSnapshot cached = this.snapshots.getIfPresent(id.getUuid());
+        if (cached != null) {
+            try {
+                return Optional.of(cached.asAggregate(this::loadCBOM));
+            } catch (Exception e) {
+                LOGGER.error(e.getMessage(), e);
+                return Optional.empty();
+            }
+        }
+
         final EntityManager entityManager = Scan.getEntityManager();
         final ArcContainer container = Arc.container();
         container.requestContext().activate();
         try {
             QuarkusTransaction.begin();
-            final Optional<Scan> scan =
-                    Optional.ofNullable(entityManager.find(Scan.class, id.getUuid()));
+            final Optional<ScanSnapshot> snapshot =
+                    Optional.ofNullable(entityManager.find(Scan.class, id.getUuid()))
+                            .map(ScanSnapshot::of);
             QuarkusTransaction.commit();
-            if (scan.isEmpty()) {
+            if (snapshot.isEmpty()) {
                 throw new EntityNotFoundById(id);
             }
-            final ScanAggregate scanAggregate = scan.get().asAggregate();
+            // a snapshot saved in the meantime is newer
+            this.snapshots.asMap().putIfAbsent(id.getUuid(), snapshot.get());
+            final ScanAggregate scanAggregate = snapshot.get().asAggregate(this::loadCBOM);
             return Optional.of(scanAggregate);
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
@@ -72,29 +113,35 @@ public final class ScanRepository extends Repository<ScanId, ScanAggregate>
         return Optional.empty();
     }
 
+    /**
+     * Saves the aggregate. If the stored state is known from a snapshot, only the changes are
+     * written: the changed columns of the scan with a single update and the results of new language
+     * scans. Nothing is written if the aggregate did not change. The domain events are published
+     * after the changes are committed.
+     */
     @Override
     public void save(@Nonnull ScanAggregate entity) {
+        final ScanSnapshot previous = this.snapshots.getIfPresent(entity.getId().getUuid());
+        if (previous != null && !previous.hasChanges(entity)) {
+            this.publishEvents(entity);
+            return;
+        }
+
         final EntityManager entityManager = Scan.getEntityManager();
         final ArcContainer container = Arc.container();
         container.requestContext().activate();
         try {
             QuarkusTransaction.begin();
-            final Optional<Scan> existing =
-                    Optional.ofNullable(entityManager.find(Scan.class, entity.getId().getUuid()));
-            final Scan scan = new Scan(entity);
-            if (existing.isEmpty()) {
-                entityManager.persist(scan);
-            } else {
-                entityManager.merge(scan);
-            }
+            final ScanSnapshot snapshot =
+                    previous == null
+                            ? saveEntity(entityManager, entity)
+                            : saveChanges(entityManager, previous, entity);
             QuarkusTransaction.commit();
-            // emit domain events
-            if (entity.hasUncommitedChanges()) {
-                // commit uncommited events from the aggregate here
-                entity.commit(domainEvents -> domainEvents.forEach(domainEventBus::publish));
-            }
+            this.snapshots.put(snapshot.id(), snapshot);
+            this.publishEvents(entity);
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
+            this.snapshots.invalidate(entity.getId().getUuid());
             if (QuarkusTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
                 QuarkusTransaction.rollback();
             }
@@ -103,6 +150,89 @@ public final class ScanRepository extends Repository<ScanId, ScanAggregate>
         }
     }
 
+    private void publishEvents(@Nonnull ScanAggregate entity) {
+        // emit domain events
+        if (entity.hasUncommitedChanges()) {
+            // commit uncommited events from the aggregate here
+            entity.commit(domainEvents -> domainEvents.forEach(domainEventBus::publish));
+        }
+    }
+
+    @Nonnull
+    private ScanSnapshot saveEntity(
+            @Nonnull EntityManager entityManager, @Nonnull ScanAggregate entity) {
+        final Optional<Scan> existing =
+                Optional.ofNullable(entityManager.find(Scan.class, entity.getId().getUuid()));
+        final Map<Language, ScanResult> storedResults = new EnumMap<>(Language.class);
+        existing.ifPresent(
+                scan ->
+                        scan.scanResults.forEach(
+                                scanResult -> storedResults.put(scanResult.language, scanResult)));
+        final Scan scan = new Scan(entity, storedResults, this.cbomStorage);
+        final Scan stored;
+        if (existing.isEmpty()) {
+            entityManager.persist(scan);
+            stored = scan;
+        } else {
+            stored = entityManager.merge(scan);
+        }
+        entityManager.flush();
+        return ScanSnapshot.of(stored);
+    }
+
+    @Nonnull
+    private ScanSnapshot saveChanges(
+            @Nonnull EntityManager entityManager,
+            @Nonnull ScanSnapshot previous,
+            @Nonnull ScanAggregate entity)
+            throws EntityNotFoundById {
+        final ScanSnapshot.State state = ScanSnapshot.State.of(entity);
+        if (!state.equals(previous.state())) {
+            final int updated =
+                    entityManager
+                            .createQuery(
+                                    "UPDATE Scan scan SET scan.gitUrl = :gitUrl,"
+                                            + " scan.purl = :purl, scan.revision = :revision,"
+                                            + " scan.packageFolder = :packageFolder,"
+                                            + " scan.commitHash = :commitHash"
+                                            + " WHERE scan.id = :id")
+                            .setParameter("gitUrl", state.gitUrl())
+                            .setParameter("purl", state.purl())
+                            .setParameter("revision", state.revision())
+                            .setParameter("packageFolder", state.packageFolder())
+                            .setParameter("commitHash", state.commitHash())
+                            .setParameter("id", previous.id())
+                            .executeUpdate();
+            if (updated == 0) {
+                throw new EntityNotFoundById(entity.getId());
+            }
+        }
+
+        final List<LanguageScan> newLanguageScans =
+                entity.getLanguageScans().orElseGet(List::of).stream()
+                        .filter(languageScan -> !previous.hasResultFor(languageScan.language()))
+                        .toList();
+        final List<ScanSnapshot.StoredScanResult> scanResults =
+                new ArrayList<>(previous.scanResults());
+        if (!newLanguageScans.isEmpty()) {
+            final Scan scan = entityManager.find(Scan.class, previous.id());
+            if (scan == null) {
+                throw new EntityNotFoundById(entity.getId());
+            }
+            for (LanguageScan languageScan : newLanguageScans) {
+                try {
+                    final ScanResult scanResult = ScanResult.of(languageScan, this.cbomStorage);
+                    entityManager.persist(scanResult);
+                    scan.scanResults.add(scanResult);
+                    scanResults.add(ScanSnapshot.toStoredScanResult(scanResult));
+                } catch (CBOMSerializationFailed e) {
+                    LOGGER.error(e.getMessage());
+                }
+            }
+        }
+        return new ScanSnapshot(previous.id(), state, scanResults);
+    }
+
     @Override
     public void delete(@Nonnull ScanId id) {
         final EntityManager entityManager = Scan.getEntityManager();
@@ -114,11 +244,43 @@ public final class ScanRepository extends Repository<ScanId, ScanAggregate>
                     Optional.ofNullable(entityManager.find(Scan.class, id.getUuid()));
             scan.ifPresent(entityManager::remove);
             QuarkusTransaction.commit();
+            this.snapshots.invalidate(id.getUuid());
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            if (QuarkusTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                QuarkusTransaction.rollback();
+            }
+        } finally {
+            container.requestContext().terminate();
+        }
+    }
+
+    /** Loads and parses the CBOM of a scan result, when the CBOM of a language scan is used. */
+    @Nonnull
+    private CBOM loadCBOM(long scanResultId) {
+        final EntityManager entityManager = Scan.getEntityManager();
+        final ArcContainer container = Arc.container();
+        container.requestContext().activate();
+        try {
+            QuarkusTransaction.begin();
+            final Object[] stored =
+                    entityManager
+                            .createQuery(
+                                    "SELECT result.cbom, result.cbomData, result.cbomCodec"
+                                            + " FROM ScanResult result WHERE result.id = :id",
+                                    Object[].class)
+                            .setParameter("id", scanResultId)
+                            .getSingleResult();
+            QuarkusTransaction.commit();
+            return CBOM.formJSON(
+                    CBOMCodec.read((JsonNode) stored[0], (byte[]) stored[1], (String) stored[2]));
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
             if (QuarkusTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
                 QuarkusTransaction.rollback();
             }
+            throw new IllegalStateException(
+                    "Could not load the CBOM of scan result " + scanResultId, e);
         } finally {
             container.requestContext().terminate();
         }
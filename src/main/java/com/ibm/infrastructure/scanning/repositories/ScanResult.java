@@ -21,13 +21,19 @@ package com.ibm.infrastructure.scanning.repositories;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.ibm.domain.scanning.Language;
+import com.ibm.domain.scanning.LanguageScan;
+import com.ibm.infrastructure.database.codec.CBOMStorage;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.Basic;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import java.sql.Timestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.pqca.errors.CBOMSerializationFailed;
 
 @Entity
 @Cacheable
@@ -40,10 +46,19 @@ class ScanResult extends PanacheEntity {
 
     protected ScanResult() {}
 
-    @Nonnull
+    // only loaded when the CBOM of the language scan is accessed, stored either as JSON (cbom)
+    // or encoded by the codec cbomCodec (cbomData)
+    @Nullable
+    @Basic(fetch = FetchType.LAZY)
     @JdbcTypeCode(SqlTypes.JSON)
     public JsonNode cbom;
 
+    @Nullable
+    @Basic(fetch = FetchType.LAZY)
+    public byte[] cbomData;
+
+    @Nullable public String cbomCodec;
+
     public ScanResult(
             @Nonnull Language language,
             long startTime,
@@ -58,4 +73,25 @@ class ScanResult extends PanacheEntity {
         this.numberOfScannedFiles = numberOfScannedFiles;
         this.cbom = cbom;
     }
+
+    @Nonnull
+    static ScanResult of(@Nonnull LanguageScan languageScan, @Nonnull CBOMStorage cbomStorage)
+            throws CBOMSerializationFailed {
+        final JsonNode cbom = languageScan.cbom().toJSON();
+        final ScanResult scanResult =
+                new ScanResult(
+                        languageScan.language(),
+                        languageScan.scanMetadata().startTime(),
+                        languageScan.scanMetadata().endTime(),
+                        languageScan.scanMetadata().numberOfScannedLines(),
+                        languageScan.scanMetadata().numberOfScannedFiles(),
+                        cbom);
+        final byte[] cbomData = cbomStorage.encode(cbom);
+        if (cbomData != null) {
+            scanResult.cbom = null;
+            scanResult.cbomData = cbomData;
+            scanResult.cbomCodec = cbomStorage.getCodec().getId();
+        }
+        return scanResult;
+    }
 }
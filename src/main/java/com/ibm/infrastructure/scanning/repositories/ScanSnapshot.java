@@ -0,0 +1,143 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.scanning.repositories;
+
+import com.github.packageurl.MalformedPackageURLException;
+import com.github.packageurl.PackageURL;
+import com.ibm.domain.scanning.Commit;
+import com.ibm.domain.scanning.GitUrl;
+import com.ibm.domain.scanning.Language;
+import com.ibm.domain.scanning.LanguageScan;
+import com.ibm.domain.scanning.Revision;
+import com.ibm.domain.scanning.ScanAggregate;
+import com.ibm.domain.scanning.ScanId;
+import com.ibm.domain.scanning.ScanMetadata;
+import com.ibm.infrastructure.errors.AggregateReconstructionFailed;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.LongFunction;
+import org.pqca.scanning.CBOM;
+
+/**
+ * The state of a stored scan without the CBOMs of its language scans, from which the aggregate is
+ * restored. The CBOMs are loaded by the id of their scan result when they are accessed.
+ */
+record ScanSnapshot(
+        @Nonnull UUID id, @Nonnull State state, @Nonnull List<StoredScanResult> scanResults) {
+
+    /** The columns of the scan table. */
+    record State(
+            @Nullable String gitUrl,
+            @Nullable String purl,
+            @Nonnull String revision,
+            @Nullable String packageFolder,
+            @Nullable String commitHash) {
+
+        @Nonnull
+        static State of(@Nonnull ScanAggregate aggregate) {
+            return new State(
+                    aggregate.getGitUrl().map(GitUrl::value).orElse(null),
+                    aggregate.getPurl().map(PackageURL::canonicalize).orElse(null),
+                    aggregate.getRevision().value(),
+                    aggregate.getPackageFolder().map(Path::toString).orElse(null),
+                    aggregate.getCommit().map(Commit::hash).orElse(null));
+        }
+    }
+
+    record StoredScanResult(
+            long id, @Nonnull Language language, @Nonnull ScanMetadata scanMetadata) {}
+
+    /** Takes a snapshot of the entity, must be called while its scan results can be loaded. */
+    @Nonnull
+    static ScanSnapshot of(@Nonnull Scan scan) {
+        return new ScanSnapshot(
+                scan.id,
+                new State(
+                        scan.gitUrl,
+                        scan.purl,
+                        scan.revision,
+                        scan.packageFolder,
+                        scan.commitHash),
+                scan.scanResults.stream().map(ScanSnapshot::toStoredScanResult).toList());
+    }
+
+    @Nonnull
+    static StoredScanResult toStoredScanResult(@Nonnull ScanResult scanResult) {
+        return new StoredScanResult(
+                scanResult.id,
+                scanResult.language,
+                new ScanMetadata(
+                        scanResult.startTime.getTime(),
+                        scanResult.endTime.getTime(),
+                        scanResult.numberOfScannedLines,
+                        scanResult.numberOfScannedFiles));
+    }
+
+    /** Returns whether the aggregate differs from the snapshot. */
+    boolean hasChanges(@Nonnull ScanAggregate aggregate) {
+        return !state.equals(State.of(aggregate))
+                || aggregate.getLanguageScans().orElseGet(List::of).stream()
+                        .anyMatch(languageScan -> !hasResultFor(languageScan.language()));
+    }
+
+    boolean hasResultFor(@Nonnull Language language) {
+        return scanResults.stream().anyMatch(scanResult -> scanResult.language() == language);
+    }
+
+    @Nonnull
+    ScanAggregate asAggregate(@Nonnull LongFunction<CBOM> cbomLoader)
+            throws AggregateReconstructionFailed {
+        try {
+            final Map<Language, LanguageScan> languageScans = new EnumMap<>(Language.class);
+            for (StoredScanResult scanResult : scanResults) {
+                languageScans.put(
+                        scanResult.language(),
+                        new LanguageScan(
+                                scanResult.language(),
+                                scanResult.scanMetadata(),
+                                () -> cbomLoader.apply(scanResult.id())));
+            }
+
+            Optional<PackageURL> optionalPackageURL = Optional.empty();
+            if (state.purl() != null) {
+                optionalPackageURL = Optional.of(new PackageURL(state.purl()));
+            }
+
+            return ScanAggregate.reconstruct(
+                    new ScanId(this.id),
+                    Optional.ofNullable(state.gitUrl()).map(GitUrl::new).orElse(null),
+                    optionalPackageURL.orElse(null),
+                    Optional.ofNullable(state.revision())
+                            .map(Revision::new)
+                            .orElse(ScanAggregate.REVISION_MAIN),
+                    Optional.ofNullable(state.packageFolder()).map(Path::of).orElse(null),
+                    Optional.ofNullable(state.commitHash()).map(Commit::new).orElse(null),
+                    languageScans);
+        } catch (MalformedPackageURLException e) {
+            throw new AggregateReconstructionFailed(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.presentation.api.v1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Nonnull;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/** Streams results as newline delimited JSON, one line per result, flushed as it is produced. */
+public final class NdjsonOutput {
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private NdjsonOutput() {}
+
+    /** Produces results by passing them to a consumer, on the calling thread. */
+    @FunctionalInterface
+    public interface Producer {
+        void produce(@Nonnull Consumer<Object> consumer) throws InterruptedException;
+    }
+
+    /**
+     * Returns a response that runs the producer while the response is written. A disconnected
+     * client fails the next write, which stops the producer.
+     */
+    @Nonnull
+    public static Response stream(@Nonnull Producer producer) {
+        final StreamingOutput output =
+                outputStream -> {
+                    try {
+                        producer.produce(
+                                result -> {
+                                    try {
+                                        outputStream.write(OBJECT_MAPPER.writeValueAsBytes(result));
+                                        outputStream.write('\n');
+                                        outputStream.flush();
+                                    } catch (IOException e) {
+                                        // the client disconnected
+                                        throw new UncheckedIOException(e);
+                                    }
+                                });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException(e.getMessage());
+                    }
+                };
+        return Response.ok(output).type(APPLICATION_NDJSON + ";charset=UTF-8").build();
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.presentation.api.v1.compliance;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The projects to evaluate, either listed or selected by a filter on the git url and on the time
+ * their CBOM was stored.
+ */
+public record BatchComplianceCheckRequest(
+        @Nullable @JsonProperty("policyIdentifier") String policyIdentifier,
+        @Nullable @JsonProperty("projectIdentifiers") List<String> projectIdentifiers,
+        @Nullable @JsonProperty("gitUrlPrefix") String gitUrlPrefix,
+        @Nullable @JsonProperty("createdAfter") Instant createdAfter) {}
@@ -20,8 +20,11 @@
 package com.ibm.presentation.api.v1.compliance;
 
 import app.bootstrap.core.cqrs.IQueryBus;
+import com.ibm.domain.compliance.PolicyIdentifier;
+import com.ibm.presentation.api.v1.NdjsonOutput;
 import com.ibm.usecases.compliance.queries.RequestComplianceCheckForCBOMQuery;
 import com.ibm.usecases.compliance.queries.RequestComplianceCheckForScannedGitRepositoryQuery;
+import com.ibm.usecases.compliance.service.BatchComplianceService;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -29,9 +32,11 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.jboss.resteasy.reactive.RestQuery;
@@ -41,9 +46,12 @@ import org.jboss.resteasy.reactive.RestQuery;
 public class ComplianceResource {
 
     @Nonnull protected final IQueryBus queryBus;
+    @Nonnull protected final BatchComplianceService batchComplianceService;
 
-    public ComplianceResource(@Nonnull IQueryBus queryBus) {
+    public ComplianceResource(
+            @Nonnull IQueryBus queryBus, @Nonnull BatchComplianceService batchComplianceService) {
         this.queryBus = queryBus;
+        this.batchComplianceService = batchComplianceService;
     }
 
     @GET
@@ -97,4 +105,37 @@ public class ComplianceResource {
                 .thenApply(res -> Response.ok(res).build())
                 .get();
     }
+
+    @POST
+    @Path("/check/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(NdjsonOutput.APPLICATION_NDJSON)
+    @Operation(
+            summary = "Verify the compliance of the stored CBOMs of many projects against a policy",
+            description =
+                    "Evaluates the listed projects, or the projects whose git url starts with 'gitUrlPrefix' and/or whose CBOM was stored after 'createdAfter', and streams one JSON line per project, in the order of the projects, as soon as it is evaluated.")
+    public Response checkStoredBatch(@Nullable BatchComplianceCheckRequest request) {
+        if (request == null || request.policyIdentifier() == null) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        final List<String> projectIdentifiers;
+        if (request.projectIdentifiers() != null) {
+            projectIdentifiers = request.projectIdentifiers();
+        } else if (request.gitUrlPrefix() != null || request.createdAfter() != null) {
+            projectIdentifiers =
+                    this.batchComplianceService.findProjectIdentifiers(
+                            request.gitUrlPrefix(), request.createdAfter());
+        } else {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        if (projectIdentifiers.size() > this.batchComplianceService.getMaxProjects()) {
+            return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).build();
+        }
+
+        final PolicyIdentifier policyIdentifier = new PolicyIdentifier(request.policyIdentifier());
+        return NdjsonOutput.stream(
+                consumer ->
+                        this.batchComplianceService.evaluate(
+                                policyIdentifier, projectIdentifiers, consumer));
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.presentation.api.v1.database;
+
+import com.ibm.usecases.database.service.CBOMImportItem;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/** Reads the CBOMs of a bulk import lazily from the request body. */
+final class CBOMImportSources {
+
+    private CBOMImportSources() {}
+
+    /**
+     * Reads one {"projectIdentifier": "...", "cbom": {...}} object per line, blank lines are
+     * skipped.
+     */
+    @Nonnull
+    static Iterator<CBOMImportItem> fromNdjson(@Nonnull InputStream inputStream) {
+        final BufferedReader reader =
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return new ReadAheadIterator() {
+            private int lineNumber = 0;
+
+            @Nullable
+            @Override
+            CBOMImportItem read() throws IOException {
+                String line;
+                do {
+                    line = reader.readLine();
+                    lineNumber++;
+                } while (line != null && line.isBlank());
+                return line == null ? null : new CBOMImportItem("line " + lineNumber, null, line);
+            }
+        };
+    }
+
+    /**
+     * Reads the JSON files of a zip archive, the project identifier of a CBOM is the path of its
+     * file without the .json extension. Files larger than the maximum file size are reported as
+     * not imported. Once the uncompressed files exceed the maximum archive size, including the
+     * skipped ones, the file being read is reported as not imported and the rest of the archive is
+     * ignored.
+     */
+    @Nonnull
+    static Iterator<CBOMImportItem> fromZip(
+            @Nonnull InputStream inputStream, long maxFileBytes, long maxArchiveBytes) {
+        final ZipInputStream zipInputStream = new ZipInputStream(inputStream);
+        // one byte more than allowed tells that a file is too large
+        final int readLimit = (int) Math.min(maxFileBytes + 1, Integer.MAX_VALUE - 8);
+        return new ReadAheadIterator() {
+            private long remainingBytes = maxArchiveBytes;
+
+            @Nullable
+            @Override
+            CBOMImportItem read() throws IOException {
+                if (remainingBytes < 0) {
+                    return null;
+                }
+                for (ZipEntry entry = zipInputStream.getNextEntry();
+                        entry != null;
+                        entry = zipInputStream.getNextEntry()) {
+                    final String name = entry.getName();
+                    final boolean isCBOM = !entry.isDirectory() && name.endsWith(".json");
+                    final byte[] content =
+                            isCBOM ? zipInputStream.readNBytes(readLimit) : new byte[0];
+                    remainingBytes -= content.length;
+                    final boolean tooLarge = content.length > maxFileBytes;
+                    if (!isCBOM || tooLarge) {
+                        // skipping inflates the entry as well, so it counts for the archive size
+                        remainingBytes -= zipInputStream.skip(Math.max(remainingBytes, 0) + 1);
+                    }
+                    final String projectIdentifier =
+                            isCBOM ? name.substring(0, name.length() - ".json".length()) : null;
+                    if (remainingBytes < 0) {
+                        return CBOMImportItem.unreadable(
+                                name,
+                                projectIdentifier,
+                                "The archive exceeds "
+                                        + toMegabytes(maxArchiveBytes)
+                                        + " MB, the remaining files are not imported");
+                    }
+                    if (tooLarge) {
+                        return CBOMImportItem.unreadable(
+                                name,
+                                projectIdentifier,
+                                "The file exceeds " + toMegabytes(maxFileBytes) + " MB");
+                    }
+                    if (isCBOM) {
+                        return new CBOMImportItem(
+                                name,
+                                projectIdentifier,
+                                new String(content, StandardCharsets.UTF_8));
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static long toMegabytes(long bytes) {
+        return bytes / 1024 / 1024;
+    }
+
+    private abstract static class ReadAheadIterator implements Iterator<CBOMImportItem> {
+        @Nullable private CBOMImportItem next;
+        private boolean done = false;
+
+        /** Returns the next item or null at the end of the input. */
+        @Nullable
+        abstract CBOMImportItem read() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public CBOMImportItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final CBOMImportItem item = next;
+            next = null;
+            return item;
+        }
+    }
+}
@@ -19,33 +19,54 @@
  */
 package com.ibm.presentation.api.v1.database;
 
-import app.bootstrap.core.cqrs.ICommandBus;
 import app.bootstrap.core.cqrs.IQueryBus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.infrastructure.CommandBus;
+import com.ibm.presentation.api.v1.NdjsonOutput;
 import com.ibm.usecases.database.commands.StoreCBOMCommand;
+import com.ibm.usecases.database.errors.InvalidCBOM;
+import com.ibm.usecases.database.errors.InvalidSummaryCursor;
 import com.ibm.usecases.database.errors.NoCBOMForProjectIdentifierFound;
 import com.ibm.usecases.database.queries.DeleteCBOMByProjectIdentifierQuery;
 import com.ibm.usecases.database.queries.GetCBOMByProjectIdentifierQuery;
+import com.ibm.usecases.database.queries.ListCBOMSummariesQuery;
 import com.ibm.usecases.database.queries.ListStoredCBOMsQuery;
+import com.ibm.usecases.database.service.CBOMImportItem;
+import com.ibm.usecases.database.service.CBOMImportService;
+import com.ibm.usecases.database.service.CBOMIngestionService;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestQuery;
 
 @Path("/api/v1/cbom")
 @ApplicationScoped
 public class CBOMResource {
+    private static final String APPLICATION_ZIP = "application/zip";
 
-    @Nonnull protected final ICommandBus commandBus;
+    @Nonnull protected final CommandBus commandBus;
     @Nonnull protected final IQueryBus queryBus;
+    @Nonnull protected final CBOMImportService importService;
 
-    public CBOMResource(@Nonnull ICommandBus commandBus, @Nonnull IQueryBus queryBus) {
+    public CBOMResource(
+            @Nonnull CommandBus commandBus,
+            @Nonnull IQueryBus queryBus,
+            @Nonnull CBOMImportService importService) {
         this.commandBus = commandBus;
         this.queryBus = queryBus;
+        this.importService = importService;
     }
 
     @GET
@@ -57,36 +78,43 @@ public class CBOMResource {
                     "Returns a list of the most recently generated CBOMs. "
                             + "The length of the list can by specified via the optional 'limit' "
                             + "parameter.")
-    public Response getLastCBOMs(@RestPath @Nullable Integer limit)
-            throws ExecutionException, InterruptedException {
+    public CompletionStage<Response> getLastCBOMs(@RestPath @Nullable Integer limit) {
         return this.queryBus
                 .send(new ListStoredCBOMsQuery(limit))
-                .thenApply(readModels -> Response.ok(readModels).build())
-                .get();
+                .thenApply(documents -> Response.ok(documents).build())
+                .exceptionally(CBOMResource::toErrorResponse);
+    }
+
+    @GET
+    @Path("/summary")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Return summaries of recently generated CBOMs",
+            description =
+                    "Returns the metadata, component counts and compliance status of the most "
+                            + "recently generated CBOMs, without the CBOMs. The page size is set "
+                            + "by the optional 'limit' parameter; the next page is requested by "
+                            + "passing the returned 'nextCursor' as 'cursor' parameter.")
+    public CompletionStage<Response> getCBOMSummaries(
+            @RestQuery @Nullable Integer limit, @RestQuery @Nullable String cursor) {
+        return this.queryBus
+                .send(new ListCBOMSummariesQuery(limit, cursor))
+                .thenApply(page -> Response.ok(page).build())
+                .exceptionally(CBOMResource::toErrorResponse);
     }
 
     @GET
     @Path("/{projectIdentifier}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getCBOM(@RestPath @Nullable String projectIdentifier) {
+    public CompletionStage<Response> getCBOM(@RestPath @Nullable String projectIdentifier) {
         if (projectIdentifier == null) {
-            return Response.status(Response.Status.BAD_REQUEST).build();
-        }
-        try {
-            final var readModel =
-                    this.queryBus
-                            .send(new GetCBOMByProjectIdentifierQuery(projectIdentifier))
-                            .get();
-            return Response.ok(readModel).build();
-        } catch (ExecutionException e) {
-            if (e.getCause() instanceof NoCBOMForProjectIdentifierFound) {
-                return Response.status(Response.Status.NOT_FOUND).build();
-            }
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(
+                    Response.status(Response.Status.BAD_REQUEST).build());
         }
+        return this.queryBus
+                .send(new GetCBOMByProjectIdentifierQuery(projectIdentifier))
+                .thenApply(document -> Response.ok(document).build())
+                .exceptionally(CBOMResource::toErrorResponse);
     }
 
     @POST
@@ -101,14 +129,65 @@ public class CBOMResource {
             return Response.status(Response.Status.BAD_REQUEST).build();
         }
 
+        final JsonNode cbom;
         try {
-            commandBus.send(new StoreCBOMCommand(projectIdentifier, cbomJson)).get();
+            // parsed and validated here, a client error is told apart from a failed store
+            cbom = CBOMIngestionService.parse(cbomJson);
+        } catch (InvalidCBOM e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        try {
+            // the command bus reports a failed handler as false
+            if (!commandBus.trySend(new StoreCBOMCommand(projectIdentifier, cbom)).get()) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+            }
             return Response.ok().build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @POST
+    @Path("/import")
+    @Consumes(NdjsonOutput.APPLICATION_NDJSON)
+    @Produces(NdjsonOutput.APPLICATION_NDJSON)
+    @Operation(
+            summary = "Store many CBOMs at once",
+            description =
+                    "Reads one JSON object {\"projectIdentifier\": ..., \"cbom\": {...}} per line, replaces the stored CBOM of each project and streams one JSON line per CBOM with its id or the reason why it was not stored.")
+    public Response importCBOMs(@Nullable InputStream body) {
+        if (body == null) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        return streamImport(CBOMImportSources.fromNdjson(body));
+    }
+
+    @POST
+    @Path("/import")
+    @Consumes(APPLICATION_ZIP)
+    @Produces(NdjsonOutput.APPLICATION_NDJSON)
+    @Operation(
+            summary = "Store the CBOMs of a zip archive",
+            description =
+                    "Stores each JSON file of the archive as the CBOM of the project named by the path of the file without the .json extension, and streams one JSON line per CBOM with its id or the reason why it was not stored.")
+    public Response importCBOMArchive(@Nullable InputStream body) {
+        if (body == null) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        return streamImport(
+                CBOMImportSources.fromZip(
+                        body,
+                        this.importService.getMaxFileBytes(),
+                        this.importService.getMaxArchiveBytes()));
+    }
+
+    @Nonnull
+    private Response streamImport(@Nonnull Iterator<CBOMImportItem> items) {
+        return NdjsonOutput.stream(consumer -> this.importService.importCBOMs(items, consumer));
+    }
+
     @DELETE
     @Path("/{projectIdentifier}")
     public Response deleteCBOM(@Nullable @RestPath String projectIdentifier) {
@@ -129,4 +208,17 @@ public class CBOMResource {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @Nonnull
+    private static Response toErrorResponse(@Nonnull Throwable throwable) {
+        final Throwable cause =
+                throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (cause instanceof NoCBOMForProjectIdentifierFound) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        if (cause instanceof InvalidSummaryCursor) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+    }
 }
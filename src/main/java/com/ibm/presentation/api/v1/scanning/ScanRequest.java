@@ -19,6 +19,7 @@
  */
 package com.ibm.presentation.api.v1.scanning;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -27,4 +28,20 @@ public record ScanRequest(
         @Nonnull @JsonProperty("scanUrl") String scanUrl,
         @Nullable @JsonProperty("branch") String branch,
         @Nullable @JsonProperty("subfolder") String subfolder,
-        @Nullable @JsonProperty("credentials") Credentials credentials) {}
+        @Nullable @JsonProperty("credentials") Credentials credentials,
+        @Nullable @JsonProperty("force") Boolean force) {
+
+    public ScanRequest(
+            @Nonnull String scanUrl,
+            @Nullable String branch,
+            @Nullable String subfolder,
+            @Nullable Credentials credentials) {
+        this(scanUrl, branch, subfolder, credentials, null);
+    }
+
+    /** Returns true if a previous scan of the same code must not be reused. */
+    @JsonIgnore
+    public boolean isForced() {
+        return Boolean.TRUE.equals(force);
+    }
+}
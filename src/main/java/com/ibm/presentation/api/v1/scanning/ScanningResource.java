@@ -21,86 +21,110 @@ package com.ibm.presentation.api.v1.scanning;
 
 import static com.ibm.output.IAggregator.LOGGER;
 
-import app.bootstrap.core.cqrs.ICommandBus;
-import app.bootstrap.core.ddd.IDomainEventBus;
 import com.ibm.domain.scanning.ScanId;
-import com.ibm.domain.scanning.authentication.ICredentials;
 import com.ibm.infrastructure.progress.EmptyProgressDispatcher;
-import com.ibm.infrastructure.scanning.IScanConfiguration;
-import com.ibm.infrastructure.scanning.repositories.ScanRepository;
-import com.ibm.usecases.scanning.commands.CloneGitRepositoryCommand;
-import com.ibm.usecases.scanning.commands.IdentifyPackageFolderCommand;
-import com.ibm.usecases.scanning.commands.IndexModulesCommand;
-import com.ibm.usecases.scanning.commands.RequestScanCommand;
-import com.ibm.usecases.scanning.commands.ResolvePurlCommand;
-import com.ibm.usecases.scanning.commands.ScanCommand;
-import com.ibm.usecases.scanning.processmanager.ScanProcessManager;
+import com.ibm.infrastructure.progress.ProgressJournal;
+import com.ibm.usecases.scanning.errors.ScanQueueFull;
+import com.ibm.usecases.scanning.scheduler.ScanJob;
+import com.ibm.usecases.scanning.scheduler.ScanPriority;
+import com.ibm.usecases.scanning.scheduler.ScanScheduler;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import java.util.List;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.net.URI;
+import java.util.UUID;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.jboss.resteasy.reactive.RestPath;
 
 @Path("/api/v1/scan")
 @ApplicationScoped
 public final class ScanningResource {
+    private static final int RETRY_AFTER_SECONDS = 30;
 
-    @Nonnull private final ICommandBus commandBus;
-    @Nonnull private final IDomainEventBus domainEventBus;
-    @Nonnull private final IScanConfiguration configuration;
+    @Nonnull private final ScanScheduler scanScheduler;
+    @Nonnull private final ProgressJournal progressJournal;
 
     public ScanningResource(
-            @Nonnull ICommandBus commandBus,
-            @Nonnull IDomainEventBus domainEventBus,
-            @Nonnull IScanConfiguration configuration) {
-        this.commandBus = commandBus;
-        this.domainEventBus = domainEventBus;
-        this.configuration = configuration;
+            @Nonnull ScanScheduler scanScheduler, @Nonnull ProgressJournal progressJournal) {
+        this.scanScheduler = scanScheduler;
+        this.progressJournal = progressJournal;
     }
 
     @POST
+    @Produces(MediaType.APPLICATION_JSON)
     public Response scan(@Nullable ScanRequest scanRequest) {
         if (scanRequest == null) {
             return Response.status(Response.Status.BAD_REQUEST).build();
         }
 
         try {
-            final ScanRepository scanRepository = new ScanRepository(this.domainEventBus);
-
             final ScanId scanId = new ScanId();
-            final ScanProcessManager scanProcessManager =
-                    new ScanProcessManager(
-                            scanId,
-                            this.commandBus,
-                            scanRepository,
-                            new EmptyProgressDispatcher(),
-                            this.configuration);
-
-            this.commandBus.register(
-                    scanProcessManager,
-                    List.of(
-                            ResolvePurlCommand.class,
-                            CloneGitRepositoryCommand.class,
-                            IdentifyPackageFolderCommand.class,
-                            IndexModulesCommand.class,
-                            ScanCommand.class));
-
-            final ICredentials authCredentials = Credentials.extractFrom(scanRequest);
-
-            commandBus.send(
-                    new RequestScanCommand(
+            this.scanScheduler.submit(
+                    new ScanJob(
                             scanId,
                             scanRequest.scanUrl(),
                             scanRequest.branch(),
                             scanRequest.subfolder(),
-                            authCredentials));
-
-            return Response.status(Response.Status.ACCEPTED).build();
+                            Credentials.extractFrom(scanRequest),
+                            scanRequest.isForced(),
+                            ScanPriority.BATCH,
+                            new EmptyProgressDispatcher()));
+            final String id = scanId.getUuid().toString();
+            return Response.accepted(new ScanAccepted(id))
+                    .location(URI.create("/api/v1/scan/" + id + "/progress"))
+                    .build();
+        } catch (ScanQueueFull e) {
+            // too many scans, the client should retry later
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", RETRY_AFTER_SECONDS)
+                    .build();
         } catch (Exception e) {
             LOGGER.error("Error processing request", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @GET
+    @Path("/{scanId}/progress")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(
+            summary = "Follow the progress of a scan",
+            description =
+                    "Streams the progress messages of a recent scan as server-sent events, "
+                            + "starting at the sequence number given by the optional 'from' "
+                            + "parameter or after the 'Last-Event-ID' header.")
+    public void progress(
+            @RestPath @Nullable String scanId,
+            @QueryParam("from") @Nullable Long from,
+            @HeaderParam("Last-Event-ID") @Nullable String lastEventId,
+            @Context SseEventSink sink,
+            @Context Sse sse) {
+        final ScanId id;
+        long fromSequence = from != null ? from : 0;
+        try {
+            id = new ScanId(UUID.fromString(String.valueOf(scanId)));
+            if (lastEventId != null) {
+                // resume after the last event received by a reconnecting client
+                fromSequence = Long.parseLong(lastEventId) + 1;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        this.progressJournal
+                .subscribe(id, fromSequence, new SseProgressSubscriber(sink, sse))
+                .orElseThrow(NotFoundException::new);
+    }
 }
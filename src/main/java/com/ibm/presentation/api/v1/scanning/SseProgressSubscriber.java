@@ -0,0 +1,85 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.presentation.api.v1.scanning;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ibm.infrastructure.progress.IProgressSubscriber;
+import com.ibm.infrastructure.progress.ProgressEntry;
+import jakarta.annotation.Nonnull;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.pqca.progress.ProgressMessage;
+import org.pqca.progress.ProgressMessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forwards journaled progress messages as server-sent events. The sequence number is used as the
+ * event id, so that a reconnecting client resumes via the {@code Last-Event-ID} header.
+ */
+final class SseProgressSubscriber implements IProgressSubscriber {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SseProgressSubscriber.class);
+
+    @Nonnull private final SseEventSink sink;
+    @Nonnull private final Sse sse;
+
+    SseProgressSubscriber(@Nonnull SseEventSink sink, @Nonnull Sse sse) {
+        this.sink = sink;
+        this.sse = sse;
+    }
+
+    @Override
+    public void onEntry(@Nonnull ProgressEntry entry) {
+        if (this.sink.isClosed()) {
+            throw new IllegalStateException("Event stream closed");
+        }
+        try {
+            this.sink.send(
+                    this.sse
+                            .newEventBuilder()
+                            .id(Long.toString(entry.sequence()))
+                            .data(toMessage(entry).asJSONString())
+                            .build());
+        } catch (JsonProcessingException e) {
+            LOGGER.error(e.getLocalizedMessage());
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        this.sink.close();
+    }
+
+    /** Event data is sent as a whole, therefore the CBOM is serialized into the message. */
+    @Nonnull
+    private static ProgressMessage toMessage(@Nonnull ProgressEntry entry) {
+        if (entry.cbom() == null) {
+            return entry.message();
+        }
+        return entry.cbom()
+                .get()
+                .map(cbom -> new ProgressMessage(ProgressMessageType.CBOM, cbom.toString()))
+                .orElseGet(
+                        () ->
+                                new ProgressMessage(
+                                        ProgressMessageType.WARNING,
+                                        "The CBOM is no longer available"));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.presentation.api.v1.scanning;
+
+import com.ibm.domain.scanning.ScanId;
+import com.ibm.infrastructure.progress.IProgressSubscriber;
+import com.ibm.infrastructure.progress.ProgressEntry;
+import com.ibm.infrastructure.progress.ProgressJournal;
+import com.ibm.infrastructure.progress.WebSocketProgressDispatcher;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnError;
+import jakarta.websocket.OnOpen;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.PathParam;
+import jakarta.websocket.server.ServerEndpoint;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.pqca.errors.ClientDisconnected;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lets websocket clients follow the progress of a running or recently completed scan, e.g. after
+ * a reconnect. The optional {@code from} query parameter is the sequence number of the first
+ * message to receive.
+ */
+@ServerEndpoint("/v1/scan/{scanId}/progress")
+@ApplicationScoped
+public final class WebsocketScanProgressResource {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(WebsocketScanProgressResource.class);
+
+    @Nonnull private final Map<String, Runnable> subscriptions;
+    @Nonnull private final ProgressJournal progressJournal;
+
+    public WebsocketScanProgressResource(@Nonnull ProgressJournal progressJournal) {
+        this.subscriptions = new ConcurrentHashMap<>();
+        this.progressJournal = progressJournal;
+    }
+
+    @OnOpen
+    public void onOpen(Session session, @PathParam("scanId") String scanId) {
+        final Optional<Runnable> subscription;
+        try {
+            subscription =
+                    this.progressJournal.subscribe(
+                            new ScanId(UUID.fromString(scanId)),
+                            fromSequence(session),
+                            new Subscriber(session));
+        } catch (IllegalArgumentException e) {
+            close(session, CloseReason.CloseCodes.CANNOT_ACCEPT, "Invalid request");
+            return;
+        }
+        subscription.ifPresentOrElse(
+                cancel -> this.subscriptions.put(session.getId(), cancel),
+                () -> close(session, CloseReason.CloseCodes.CANNOT_ACCEPT, "Unknown scan"));
+    }
+
+    @OnClose
+    public void onClose(Session session) {
+        Optional.ofNullable(this.subscriptions.remove(session.getId())).ifPresent(Runnable::run);
+    }
+
+    @OnError
+    public void onError(Session session, Throwable throwable) {
+        LOGGER.warn("Progress subscription failed: {}", throwable.getMessage());
+        this.onClose(session);
+    }
+
+    private static long fromSequence(@Nonnull Session session) {
+        final List<String> from = session.getRequestParameterMap().get("from");
+        if (from == null || from.isEmpty()) {
+            return 0;
+        }
+        return Long.parseLong(from.get(0));
+    }
+
+    private static void close(
+            @Nonnull Session session,
+            @Nonnull CloseReason.CloseCode closeCode,
+            @Nullable String reason) {
+        try {
+            session.close(new CloseReason(closeCode, reason));
+        } catch (IOException e) {
+            LOGGER.error(e.getLocalizedMessage());
+        }
+    }
+
+    private static final class Subscriber implements IProgressSubscriber {
+        @Nonnull private final Session session;
+        @Nonnull private final WebSocketProgressDispatcher dispatcher;
+
+        Subscriber(@Nonnull Session session) {
+            this.session = session;
+            this.dispatcher = new WebSocketProgressDispatcher(session);
+        }
+
+        @Override
+        public void onEntry(@Nonnull ProgressEntry entry) {
+            try {
+                this.dispatcher.send(entry);
+            } catch (ClientDisconnected e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            // the client closes the connection once it has received the result, the session is
+            // not closed here as buffered messages may still be pending
+            LOGGER.debug("Progress of scan completed for session {}", this.session.getId());
+        }
+    }
+}
@@ -19,21 +19,13 @@
  */
 package com.ibm.presentation.api.v1.scanning;
 
-import app.bootstrap.core.cqrs.ICommandBus;
-import app.bootstrap.core.ddd.IDomainEventBus;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.domain.scanning.ScanId;
-import com.ibm.domain.scanning.authentication.ICredentials;
 import com.ibm.infrastructure.progress.WebSocketProgressDispatcher;
-import com.ibm.infrastructure.scanning.IScanConfiguration;
-import com.ibm.infrastructure.scanning.repositories.ScanRepository;
-import com.ibm.usecases.scanning.commands.CloneGitRepositoryCommand;
-import com.ibm.usecases.scanning.commands.IdentifyPackageFolderCommand;
-import com.ibm.usecases.scanning.commands.IndexModulesCommand;
-import com.ibm.usecases.scanning.commands.RequestScanCommand;
-import com.ibm.usecases.scanning.commands.ResolvePurlCommand;
-import com.ibm.usecases.scanning.commands.ScanCommand;
-import com.ibm.usecases.scanning.processmanager.ScanProcessManager;
+import com.ibm.usecases.scanning.errors.ScanQueueFull;
+import com.ibm.usecases.scanning.scheduler.ScanJob;
+import com.ibm.usecases.scanning.scheduler.ScanPriority;
+import com.ibm.usecases.scanning.scheduler.ScanScheduler;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -44,7 +36,6 @@ import jakarta.websocket.OnOpen;
 import jakarta.websocket.Session;
 import jakarta.websocket.server.PathParam;
 import jakarta.websocket.server.ServerEndpoint;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -59,18 +50,11 @@ public final class WebsocketScanningResource {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketScanningResource.class);
 
     @Nonnull private final Map<String, Session> sessions;
-    @Nonnull private final ICommandBus commandBus;
-    @Nonnull private final IDomainEventBus domainEventBus;
-    @Nonnull private final IScanConfiguration configuration;
+    @Nonnull private final ScanScheduler scanScheduler;
 
-    public WebsocketScanningResource(
-            @Nonnull ICommandBus commandBus,
-            @Nonnull IDomainEventBus domainEventBus,
-            @Nonnull IScanConfiguration configuration) {
+    public WebsocketScanningResource(@Nonnull ScanScheduler scanScheduler) {
         this.sessions = new ConcurrentHashMap<>();
-        this.commandBus = commandBus;
-        this.domainEventBus = domainEventBus;
-        this.configuration = configuration;
+        this.scanScheduler = scanScheduler;
     }
 
     @OnOpen
@@ -102,37 +86,31 @@ public final class WebsocketScanningResource {
             final ScanRequest scanRequest =
                     new ObjectMapper().readValue(requestJSONString, ScanRequest.class);
 
-            final ScanRepository scanRepository = new ScanRepository(this.domainEventBus);
-
             final ScanId scanId = new ScanId();
-            final ScanProcessManager scanProcessManager =
-                    new ScanProcessManager(
-                            scanId,
-                            this.commandBus,
-                            scanRepository,
-                            webSocketProgressDispatcher,
-                            this.configuration);
-            this.commandBus.register(
-                    scanProcessManager,
-                    List.of(
-                            ResolvePurlCommand.class,
-                            CloneGitRepositoryCommand.class,
-                            IdentifyPackageFolderCommand.class,
-                            IndexModulesCommand.class,
-                            ScanCommand.class));
-
-            final ICredentials authCredentials = Credentials.extractFrom(scanRequest);
-
-            webSocketProgressDispatcher.send(
-                    new ProgressMessage(ProgressMessageType.LABEL, "Starting..."));
-            commandBus.send(
-                    new RequestScanCommand(
-                            scanId,
-                            scanRequest.scanUrl(),
-                            scanRequest.branch(),
-                            scanRequest.subfolder(),
-                            authCredentials));
-
+            // lets the client resume via /v1/scan/{scanId}/progress after a reconnect; sent
+            // before the scan is submitted, so it precedes all progress messages
+            session.getBasicRemote()
+                    .sendText(
+                            new ObjectMapper()
+                                    .createObjectNode()
+                                    .put("type", "SCAN_ID")
+                                    .put("message", scanId.getUuid().toString())
+                                    .toString());
+            try {
+                this.scanScheduler.submit(
+                        new ScanJob(
+                                scanId,
+                                scanRequest.scanUrl(),
+                                scanRequest.branch(),
+                                scanRequest.subfolder(),
+                                Credentials.extractFrom(scanRequest),
+                                scanRequest.isForced(),
+                                ScanPriority.INTERACTIVE,
+                                webSocketProgressDispatcher));
+            } catch (ScanQueueFull e) {
+                webSocketProgressDispatcher.send(
+                        new ProgressMessage(ProgressMessageType.ERROR, e.getMessage()));
+            }
         } catch (Exception e) {
             LOGGER.error("Error processing request", e);
         }
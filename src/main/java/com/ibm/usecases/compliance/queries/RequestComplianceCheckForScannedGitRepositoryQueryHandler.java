@@ -21,26 +21,21 @@ package com.ibm.usecases.compliance.queries;
 
 import app.bootstrap.core.cqrs.IQueryBus;
 import app.bootstrap.core.cqrs.QueryHandler;
-import com.ibm.domain.compliance.CryptographicAsset;
 import com.ibm.domain.compliance.PolicyIdentifier;
-import com.ibm.infrastructure.compliance.ComplianceFinding;
 import com.ibm.infrastructure.compliance.ComplianceResult;
+import com.ibm.infrastructure.compliance.ComplianceResultCache;
 import com.ibm.infrastructure.compliance.IComplianceConfiguration;
-import com.ibm.infrastructure.compliance.service.ComplianceCheckResultDTO;
-import com.ibm.infrastructure.compliance.service.IComplianceService;
 import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
-import com.ibm.usecases.compliance.service.CompliancePreparationService;
+import com.ibm.usecases.compliance.service.StoredCBOMComplianceService;
 import io.quarkus.runtime.StartupEvent;
 import jakarta.annotation.Nonnull;
 import jakarta.enterprise.event.Observes;
 import jakarta.inject.Singleton;
-import java.util.Collection;
 
 @Singleton
 public final class RequestComplianceCheckForScannedGitRepositoryQueryHandler
         extends QueryHandler<RequestComplianceCheckForScannedGitRepositoryQuery, ComplianceResult> {
-    @Nonnull private final ICBOMReadRepository readRepository;
-    @Nonnull private final IComplianceService complianceService;
+    @Nonnull private final StoredCBOMComplianceService storedCBOMComplianceService;
 
     void onStart(@Observes StartupEvent event) {
         this.queryBus.register(this, RequestComplianceCheckForScannedGitRepositoryQuery.class);
@@ -49,10 +44,12 @@ public final class RequestComplianceCheckForScannedGitRepositoryQueryHandler
     public RequestComplianceCheckForScannedGitRepositoryQueryHandler(
             @Nonnull IQueryBus queryBus,
             @Nonnull ICBOMReadRepository readRepository,
-            @Nonnull IComplianceConfiguration complianceConfiguration) {
+            @Nonnull IComplianceConfiguration complianceConfiguration,
+            @Nonnull ComplianceResultCache complianceResultCache) {
         super(queryBus);
-        this.readRepository = readRepository;
-        this.complianceService = complianceConfiguration.getComplianceService();
+        this.storedCBOMComplianceService =
+                new StoredCBOMComplianceService(
+                        readRepository, complianceConfiguration, complianceResultCache);
     }
 
     @Override
@@ -61,37 +58,9 @@ public final class RequestComplianceCheckForScannedGitRepositoryQueryHandler
                     RequestComplianceCheckForScannedGitRepositoryQuery
                             requestComplianceCheckForScannedGitRepositoryQuery)
             throws Exception {
-        final CompliancePreparationService compliancePreparationService =
-                new CompliancePreparationService();
-        final Collection<CryptographicAsset> cryptographicAssets =
-                compliancePreparationService.receiveCryptographicAssets(
-                        this.readRepository,
-                        requestComplianceCheckForScannedGitRepositoryQuery.projectIdentifier());
-
-        final PolicyIdentifier policyIdentifier =
+        return this.storedCBOMComplianceService.evaluate(
+                requestComplianceCheckForScannedGitRepositoryQuery.projectIdentifier(),
                 new PolicyIdentifier(
-                        requestComplianceCheckForScannedGitRepositoryQuery.policyIdentifier());
-        final ComplianceCheckResultDTO complianceCheckResultDTO =
-                this.complianceService.evaluate(policyIdentifier, cryptographicAssets);
-
-        if (complianceCheckResultDTO.error()) {
-            return ComplianceResult.error(this.complianceService.getName());
-        }
-        return new ComplianceResult(
-                this.complianceService.getName(),
-                policyIdentifier.id(),
-                complianceCheckResultDTO.policyResults().stream()
-                        .map(
-                                result ->
-                                        new ComplianceFinding(
-                                                result.identifier(),
-                                                result.complianceLevel().id(),
-                                                result.message()))
-                        .toList(),
-                this.complianceService.getComplianceLevels(),
-                this.complianceService.getDefaultComplianceLevel().id(),
-                complianceCheckResultDTO.policyResults().stream()
-                        .noneMatch(result -> result.complianceLevel().isUnCompliant()),
-                false);
+                        requestComplianceCheckForScannedGitRepositoryQuery.policyIdentifier()));
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.compliance.service;
+
+import com.ibm.domain.compliance.PolicyIdentifier;
+import com.ibm.infrastructure.OrderedWorkerPool;
+import com.ibm.infrastructure.compliance.ComplianceResultCache;
+import com.ibm.infrastructure.compliance.IComplianceConfiguration;
+import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates the stored CBOMs of many projects against a policy. The evaluations of all batches
+ * share a bounded pool, the results are passed on in the order of the projects.
+ */
+@Singleton
+public final class BatchComplianceService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchComplianceService.class);
+
+    @Nonnull private final ICBOMReadRepository readRepository;
+    @Nonnull private final StoredCBOMComplianceService storedCBOMComplianceService;
+    @Nonnull private final OrderedWorkerPool workerPool;
+    private final int maxProjects;
+
+    public BatchComplianceService(
+            @Nonnull ICBOMReadRepository readRepository,
+            @Nonnull IComplianceConfiguration complianceConfiguration,
+            @Nonnull ComplianceResultCache complianceResultCache) {
+        this.readRepository = readRepository;
+        this.storedCBOMComplianceService =
+                new StoredCBOMComplianceService(
+                        readRepository, complianceConfiguration, complianceResultCache);
+        this.maxProjects = complianceConfiguration.getBatchComplianceMaxProjects();
+        this.workerPool =
+                new OrderedWorkerPool(
+                        "compliance-batch",
+                        complianceConfiguration.getBatchComplianceParallelism());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.workerPool.shutdown();
+    }
+
+    public int getMaxProjects() {
+        return maxProjects;
+    }
+
+    /**
+     * Returns the projects with a CBOM matching the filter. At most one project more than the
+     * maximum batch size is returned, so that callers can tell that the filter matches too many
+     * projects.
+     */
+    @Nonnull
+    public List<String> findProjectIdentifiers(
+            @Nullable String gitUrlPrefix, @Nullable Instant createdAfter) {
+        return this.readRepository.findProjectIdentifiers(
+                gitUrlPrefix, createdAfter, this.maxProjects + 1);
+    }
+
+    /**
+     * Evaluates the projects and passes each result to the consumer, on the calling thread and in
+     * the order of the projects, see {@link OrderedWorkerPool#forEachOrdered}.
+     */
+    public void evaluate(
+            @Nonnull PolicyIdentifier policyIdentifier,
+            @Nonnull Collection<String> projectIdentifiers,
+            @Nonnull Consumer<? super ProjectComplianceResult> consumer)
+            throws InterruptedException {
+        this.workerPool.forEachOrdered(
+                projectIdentifiers.iterator(),
+                projectIdentifier -> this.evaluate(policyIdentifier, projectIdentifier),
+                consumer);
+    }
+
+    @Nonnull
+    private ProjectComplianceResult evaluate(
+            @Nonnull PolicyIdentifier policyIdentifier, @Nonnull String projectIdentifier) {
+        try {
+            return new ProjectComplianceResult(
+                    projectIdentifier,
+                    this.storedCBOMComplianceService.evaluate(projectIdentifier, policyIdentifier),
+                    null);
+        } catch (Exception e) {
+            LOGGER.warn(
+                    "Could not evaluate the compliance of {}: {}",
+                    projectIdentifier,
+                    e.getMessage());
+            return new ProjectComplianceResult(projectIdentifier, null, e.getMessage());
+        }
+    }
+}
@@ -45,7 +45,11 @@ public final class CompliancePreparationService {
                 readRepository
                         .findBy(projectIdentifier)
                         .orElseThrow(() -> new CouldNotFindCBOMForGitRepository(projectIdentifier));
+        return receiveCryptographicAssets(cbomReadModel);
+    }
 
+    public Collection<CryptographicAsset> receiveCryptographicAssets(
+            @Nonnull CBOMReadModel cbomReadModel) throws CBOMSerializationFailed {
         final CBOM cbom = CBOM.formJSON(cbomReadModel.getBom());
         return Optional.ofNullable(cbom.cycloneDXbom().getComponents()).orElseGet(List::of).stream()
                 .map(component -> new CryptographicAsset(component.getBomRef(), component))
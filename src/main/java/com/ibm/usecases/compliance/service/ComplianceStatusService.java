@@ -0,0 +1,106 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.compliance.service;
+
+import com.ibm.domain.compliance.CryptographicAsset;
+import com.ibm.domain.compliance.PolicyIdentifier;
+import com.ibm.infrastructure.compliance.ComplianceFinding;
+import com.ibm.infrastructure.compliance.ComplianceResult;
+import com.ibm.infrastructure.compliance.IComplianceConfiguration;
+import com.ibm.infrastructure.compliance.service.ComplianceCheckResultDTO;
+import com.ibm.infrastructure.compliance.service.IComplianceService;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.cyclonedx.model.Bom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates CBOMs against compliance policies, the status for the default policy is stored with
+ * each CBOM.
+ */
+public final class ComplianceStatusService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ComplianceStatusService.class);
+
+    @Nonnull private final IComplianceService complianceService;
+    @Nonnull private final PolicyIdentifier policyIdentifier;
+
+    public ComplianceStatusService(@Nonnull IComplianceConfiguration complianceConfiguration) {
+        this.complianceService = complianceConfiguration.getComplianceService();
+        this.policyIdentifier =
+                new PolicyIdentifier(complianceConfiguration.getDefaultPolicyIdentifier());
+    }
+
+    @Nonnull
+    public PolicyIdentifier getPolicyIdentifier() {
+        return policyIdentifier;
+    }
+
+    /** Evaluates the CBOM against the default policy, returns an error result if that fails. */
+    @Nonnull
+    public ComplianceResult evaluate(@Nonnull Bom bom) {
+        final Collection<CryptographicAsset> cryptographicAssets =
+                Optional.ofNullable(bom.getComponents()).orElseGet(List::of).stream()
+                        .map(component -> new CryptographicAsset(component.getBomRef(), component))
+                        .toList();
+        try {
+            return this.evaluate(this.policyIdentifier, cryptographicAssets);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not evaluate the compliance of the CBOM: {}", e.getMessage());
+            return ComplianceResult.error(this.complianceService.getName());
+        }
+    }
+
+    @Nonnull
+    public ComplianceResult evaluate(
+            @Nonnull PolicyIdentifier policyIdentifier,
+            @Nonnull Collection<CryptographicAsset> cryptographicAssets) {
+        final ComplianceCheckResultDTO complianceCheckResultDTO =
+                this.complianceService.evaluate(policyIdentifier, cryptographicAssets);
+
+        if (complianceCheckResultDTO.error()) {
+            return ComplianceResult.error(this.complianceService.getName());
+        }
+        return new ComplianceResult(
+                this.complianceService.getName(),
+                policyIdentifier.id(),
+                complianceCheckResultDTO.policyResults().stream()
+                        .map(
+                                result ->
+                                        new ComplianceFinding(
+                                                result.identifier(),
+                                                result.complianceLevel().id(),
+                                                result.message()))
+                        .toList(),
+                this.complianceService.getComplianceLevels(),
+                this.complianceService.getDefaultComplianceLevel().id(),
+                complianceCheckResultDTO.policyResults().stream()
+                        .noneMatch(result -> result.complianceLevel().isUnCompliant()),
+                false);
+    }
+
+    /** Returns the compliance status, or null if the CBOM could not be evaluated. */
+    @Nullable public static Boolean isCompliant(@Nonnull ComplianceResult complianceResult) {
+        return complianceResult.error() ? null : complianceResult.globalComplianceStatus();
+    }
+}
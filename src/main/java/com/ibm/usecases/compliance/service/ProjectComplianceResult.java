@@ -0,0 +1,32 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.compliance.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ibm.infrastructure.compliance.ComplianceResult;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/** The compliance result of a project of a batch, or the reason why it could not be evaluated. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProjectComplianceResult(
+        @Nonnull String projectIdentifier,
+        @Nullable ComplianceResult result,
+        @Nullable String error) {}
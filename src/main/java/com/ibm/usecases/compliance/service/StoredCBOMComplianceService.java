@@ -0,0 +1,72 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.compliance.service;
+
+import com.ibm.domain.compliance.PolicyIdentifier;
+import com.ibm.infrastructure.compliance.ComplianceResult;
+import com.ibm.infrastructure.compliance.ComplianceResultCache;
+import com.ibm.infrastructure.compliance.IComplianceConfiguration;
+import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
+import com.ibm.usecases.compliance.errors.CouldNotFindCBOMForGitRepository;
+import jakarta.annotation.Nonnull;
+import java.util.Optional;
+import org.pqca.errors.CBOMSerializationFailed;
+
+/** Evaluates the latest stored CBOM of a project, using the cached result if there is one. */
+public final class StoredCBOMComplianceService {
+    @Nonnull private final ICBOMReadRepository readRepository;
+    @Nonnull private final ComplianceStatusService complianceStatusService;
+    @Nonnull private final ComplianceResultCache complianceResultCache;
+
+    public StoredCBOMComplianceService(
+            @Nonnull ICBOMReadRepository readRepository,
+            @Nonnull IComplianceConfiguration complianceConfiguration,
+            @Nonnull ComplianceResultCache complianceResultCache) {
+        this.readRepository = readRepository;
+        this.complianceStatusService = new ComplianceStatusService(complianceConfiguration);
+        this.complianceResultCache = complianceResultCache;
+    }
+
+    @Nonnull
+    public ComplianceResult evaluate(
+            @Nonnull String projectIdentifier, @Nonnull PolicyIdentifier policyIdentifier)
+            throws CouldNotFindCBOMForGitRepository, CBOMSerializationFailed {
+        final CBOMReadModel cbomReadModel =
+                this.readRepository
+                        .findBy(projectIdentifier)
+                        .orElseThrow(() -> new CouldNotFindCBOMForGitRepository(projectIdentifier));
+
+        // the result only depends on the stored CBOM, the policy and the compliance service
+        final Optional<ComplianceResult> cached =
+                this.complianceResultCache.get(cbomReadModel.getId(), policyIdentifier);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        final CompliancePreparationService compliancePreparationService =
+                new CompliancePreparationService();
+        final ComplianceResult complianceResult =
+                this.complianceStatusService.evaluate(
+                        policyIdentifier,
+                        compliancePreparationService.receiveCryptographicAssets(cbomReadModel));
+        this.complianceResultCache.put(cbomReadModel.getId(), policyIdentifier, complianceResult);
+        return complianceResult;
+    }
+}
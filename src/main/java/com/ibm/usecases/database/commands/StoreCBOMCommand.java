@@ -20,7 +20,13 @@
 package com.ibm.usecases.database.commands;
 
 import app.bootstrap.core.cqrs.ICommand;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.annotation.Nonnull;
 
-public record StoreCBOMCommand(@Nonnull String projectIdentifier, @Nonnull String cbomJson)
+/**
+ * Stores a CBOM in place of the stored CBOM of the project.
+ *
+ * @param cbom the parsed CBOM, already validated by the sender
+ */
+public record StoreCBOMCommand(@Nonnull String projectIdentifier, @Nonnull JsonNode cbom)
         implements ICommand {}
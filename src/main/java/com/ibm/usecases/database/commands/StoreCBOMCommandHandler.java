@@ -22,34 +22,35 @@ package com.ibm.usecases.database.commands;
 import app.bootstrap.core.cqrs.ICommand;
 import app.bootstrap.core.cqrs.ICommandBus;
 import app.bootstrap.core.cqrs.ICommandHandler;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.infrastructure.compliance.ComplianceResultCache;
+import com.ibm.infrastructure.compliance.IComplianceConfiguration;
 import com.ibm.infrastructure.database.readmodels.CBOMReadRepository;
+import com.ibm.usecases.database.service.CBOMIngestionService;
+import com.ibm.usecases.database.service.PreparedCBOM;
 import io.quarkus.runtime.StartupEvent;
 import jakarta.annotation.Nonnull;
-import jakarta.annotation.Nullable;
 import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import java.nio.charset.StandardCharsets;
-import java.sql.Timestamp;
-import java.time.Instant;
-import java.util.UUID;
-import org.cyclonedx.model.Bom;
-import org.cyclonedx.model.Property;
-import org.cyclonedx.parsers.BomParserFactory;
-import org.cyclonedx.parsers.Parser;
+import java.util.List;
 
 @Singleton
 public class StoreCBOMCommandHandler implements ICommandHandler {
-
     private final CBOMReadRepository readRepository;
     private final ICommandBus commandBus;
+    private final CBOMIngestionService ingestionService;
 
     @Inject
-    public StoreCBOMCommandHandler(CBOMReadRepository readRepository, ICommandBus commandBus) {
+    public StoreCBOMCommandHandler(
+            CBOMReadRepository readRepository,
+            ICommandBus commandBus,
+            IComplianceConfiguration complianceConfiguration,
+            ComplianceResultCache complianceResultCache) {
         this.readRepository = readRepository;
         this.commandBus = commandBus;
+        this.ingestionService =
+                new CBOMIngestionService(complianceConfiguration, complianceResultCache);
     }
 
     void onStart(@Observes StartupEvent event) {
@@ -60,47 +61,12 @@ public class StoreCBOMCommandHandler implements ICommandHandler {
     public void handle(@Nonnull ICommand command) throws Exception {
         if (command
                 instanceof
-                StoreCBOMCommand(@Nonnull String projectIdentifier, @Nonnull String cbomJson)) {
-            // validate that data is valid CBOM
-            byte[] cbomBytes = cbomJson.getBytes(StandardCharsets.UTF_8);
-            final Parser parser = BomParserFactory.createParser(cbomBytes);
-            final Bom bom = parser.parse(cbomBytes);
-
-            // delete existing CBOM
-            this.readRepository
-                    .findBy(projectIdentifier)
-                    .ifPresent(existing -> readRepository.delete(existing.getId()));
-
-            @Nonnull UUID cbomUUID = UUID.randomUUID();
-            @Nonnull String repository = "manual-upload-" + cbomUUID;
-
-            @Nullable String revision = null;
-            @Nullable String packageFolder = null;
-            @Nullable String commit = null;
-
-            // extract amd override default properties with CBOM metadata
-            if (bom.getMetadata() != null && bom.getMetadata().getProperties() != null) {
-                for (Property property : bom.getMetadata().getProperties()) {
-                    switch (property.getName()) {
-                        case "gitUrl" -> repository = property.getValue();
-                        case "revision" -> revision = property.getValue();
-                        case "commit" -> commit = property.getValue();
-                        case "subfolder" -> packageFolder = property.getValue();
-                        default -> {}
-                    }
-                }
-            }
-            final CBOMReadModel model =
-                    new CBOMReadModel(
-                            cbomUUID,
-                            projectIdentifier,
-                            repository,
-                            revision,
-                            packageFolder,
-                            commit,
-                            Timestamp.from(Instant.now()),
-                            (new ObjectMapper()).readTree(cbomJson));
-            readRepository.save(model);
+                StoreCBOMCommand(@Nonnull String projectIdentifier, @Nonnull JsonNode cbomTree)) {
+            final PreparedCBOM preparedCBOM =
+                    this.ingestionService.prepare(projectIdentifier, cbomTree);
+            // replaces the existing CBOM of the project
+            this.ingestionService.stored(
+                    List.of(preparedCBOM), this.readRepository.replace(preparedCBOM.readModel()));
         }
     }
 }
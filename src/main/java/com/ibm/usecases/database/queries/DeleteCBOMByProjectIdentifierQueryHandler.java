@@ -21,6 +21,7 @@ package com.ibm.usecases.database.queries;
 
 import app.bootstrap.core.cqrs.IQueryBus;
 import app.bootstrap.core.cqrs.QueryHandler;
+import com.ibm.infrastructure.compliance.ComplianceResultCache;
 import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
 import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
 import com.ibm.usecases.database.errors.NoCBOMForProjectIdentifierFound;
@@ -34,15 +35,19 @@ public class DeleteCBOMByProjectIdentifierQueryHandler
         extends QueryHandler<DeleteCBOMByProjectIdentifierQuery, CBOMReadModel> {
 
     @Nonnull private final ICBOMReadRepository readRepository;
+    @Nonnull private final ComplianceResultCache complianceResultCache;
 
     void onStart(@Observes StartupEvent event) {
         this.queryBus.register(this, DeleteCBOMByProjectIdentifierQuery.class);
     }
 
     public DeleteCBOMByProjectIdentifierQueryHandler(
-            @Nonnull IQueryBus queryBus, @Nonnull ICBOMReadRepository readRepository) {
+            @Nonnull IQueryBus queryBus,
+            @Nonnull ICBOMReadRepository readRepository,
+            @Nonnull ComplianceResultCache complianceResultCache) {
         super(queryBus);
         this.readRepository = readRepository;
+        this.complianceResultCache = complianceResultCache;
     }
 
     @Override
@@ -58,6 +63,7 @@ public class DeleteCBOMByProjectIdentifierQueryHandler
                                                 deleteCBOMByProjectIdentifierQuery
                                                         .projectIdentifier()));
         this.readRepository.delete(cbomReadModel.getId());
+        this.complianceResultCache.invalidate(cbomReadModel.getId());
         return cbomReadModel;
     }
 }
@@ -20,8 +20,8 @@
 package com.ibm.usecases.database.queries;
 
 import app.bootstrap.core.cqrs.IQuery;
-import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.infrastructure.database.readmodels.CBOMDocument;
 import jakarta.annotation.Nonnull;
 
 public record GetCBOMByProjectIdentifierQuery(@Nonnull String projectIdentifier)
-        implements IQuery<CBOMReadModel> {}
+        implements IQuery<CBOMDocument> {}
@@ -21,7 +21,7 @@ package com.ibm.usecases.database.queries;
 
 import app.bootstrap.core.cqrs.IQueryBus;
 import app.bootstrap.core.cqrs.QueryHandler;
-import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.infrastructure.database.readmodels.CBOMDocument;
 import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
 import com.ibm.usecases.database.errors.NoCBOMForProjectIdentifierFound;
 import io.quarkus.runtime.StartupEvent;
@@ -31,7 +31,7 @@ import jakarta.inject.Singleton;
 
 @Singleton
 public class GetCBOMByProjectIdentifierQueryHandler
-        extends QueryHandler<GetCBOMByProjectIdentifierQuery, CBOMReadModel> {
+        extends QueryHandler<GetCBOMByProjectIdentifierQuery, CBOMDocument> {
 
     @Nonnull private final ICBOMReadRepository readRepository;
 
@@ -46,11 +46,11 @@ public class GetCBOMByProjectIdentifierQueryHandler
     }
 
     @Override
-    public @Nonnull CBOMReadModel handle(
+    public @Nonnull CBOMDocument handle(
             @Nonnull GetCBOMByProjectIdentifierQuery getCBOMByProjectIdentifierQuery)
             throws Exception {
         return this.readRepository
-                .findBy(getCBOMByProjectIdentifierQuery.projectIdentifier())
+                .findDocumentBy(getCBOMByProjectIdentifierQuery.projectIdentifier())
                 .orElseThrow(
                         () ->
                                 new NoCBOMForProjectIdentifierFound(
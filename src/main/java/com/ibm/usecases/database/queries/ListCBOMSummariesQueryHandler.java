@@ -0,0 +1,78 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.database.queries;
+
+import app.bootstrap.core.cqrs.IQueryBus;
+import app.bootstrap.core.cqrs.QueryHandler;
+import com.ibm.infrastructure.database.readmodels.CBOMSummary;
+import com.ibm.infrastructure.database.readmodels.CBOMSummaryCursor;
+import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
+import com.ibm.usecases.database.errors.InvalidSummaryCursor;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Singleton;
+import java.util.List;
+
+@Singleton
+public final class ListCBOMSummariesQueryHandler
+        extends QueryHandler<ListCBOMSummariesQuery, CBOMSummaryPage> {
+
+    @Nonnull private final ICBOMReadRepository readRepository;
+
+    void onStart(@Observes StartupEvent event) {
+        this.queryBus.register(this, ListCBOMSummariesQuery.class);
+    }
+
+    public ListCBOMSummariesQueryHandler(
+            @Nonnull IQueryBus queryBus, @Nonnull ICBOMReadRepository readRepository) {
+        super(queryBus);
+        this.readRepository = readRepository;
+    }
+
+    @Override
+    public @Nonnull CBOMSummaryPage handle(@Nonnull ListCBOMSummariesQuery listCBOMSummariesQuery)
+            throws Exception {
+        final int limit = listCBOMSummariesQuery.limit();
+        final CBOMSummaryCursor after = decode(listCBOMSummariesQuery.cursor());
+        // one more than requested tells if there is a next page
+        final List<CBOMSummary> summaries =
+                this.readRepository.getRecentSummaries(limit + 1, after);
+        if (summaries.size() <= limit) {
+            return new CBOMSummaryPage(summaries, null);
+        }
+        final List<CBOMSummary> page = summaries.subList(0, limit);
+        return new CBOMSummaryPage(
+                List.copyOf(page), CBOMSummaryCursor.after(page.get(limit - 1)).encode());
+    }
+
+    @Nullable private static CBOMSummaryCursor decode(@Nullable String cursor)
+            throws InvalidSummaryCursor {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return CBOMSummaryCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSummaryCursor(cursor);
+        }
+    }
+}
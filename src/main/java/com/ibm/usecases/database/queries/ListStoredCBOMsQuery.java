@@ -20,14 +20,14 @@
 package com.ibm.usecases.database.queries;
 
 import app.bootstrap.core.cqrs.IQuery;
-import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.infrastructure.database.readmodels.CBOMDocument;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.util.Collection;
 import java.util.Optional;
 
 public record ListStoredCBOMsQuery(@Nullable Integer limit)
-        implements IQuery<Collection<CBOMReadModel>> {
+        implements IQuery<Collection<CBOMDocument>> {
 
     @Override
     @Nonnull
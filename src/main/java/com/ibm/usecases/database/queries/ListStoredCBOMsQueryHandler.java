@@ -21,7 +21,7 @@ package com.ibm.usecases.database.queries;
 
 import app.bootstrap.core.cqrs.IQueryBus;
 import app.bootstrap.core.cqrs.QueryHandler;
-import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.infrastructure.database.readmodels.CBOMDocument;
 import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
 import io.quarkus.runtime.StartupEvent;
 import jakarta.annotation.Nonnull;
@@ -31,7 +31,7 @@ import java.util.Collection;
 
 @Singleton
 public final class ListStoredCBOMsQueryHandler
-        extends QueryHandler<ListStoredCBOMsQuery, Collection<CBOMReadModel>> {
+        extends QueryHandler<ListStoredCBOMsQuery, Collection<CBOMDocument>> {
 
     @Nonnull private final ICBOMReadRepository readRepository;
 
@@ -46,7 +46,7 @@ public final class ListStoredCBOMsQueryHandler
     }
 
     @Override
-    public @Nonnull Collection<CBOMReadModel> handle(
+    public @Nonnull Collection<CBOMDocument> handle(
             @Nonnull ListStoredCBOMsQuery listStoredCBOMsQuery) throws Exception {
         return this.readRepository.getRecent(listStoredCBOMsQuery.limit());
     }
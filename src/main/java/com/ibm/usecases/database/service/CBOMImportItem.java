@@ -0,0 +1,50 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.database.service;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * A CBOM to import. Without a project identifier, the content is a JSON object of the form
+ * {"projectIdentifier": "...", "cbom": {...}}, otherwise it is the CBOM itself.
+ *
+ * @param source where the CBOM was read from (e.g. the line or file), reported in the result
+ * @param content the content, null if the CBOM could not be read
+ * @param error the reason why the CBOM could not be read
+ */
+public record CBOMImportItem(
+        @Nonnull String source,
+        @Nullable String projectIdentifier,
+        @Nullable String content,
+        @Nullable String error) {
+
+    public CBOMImportItem(
+            @Nonnull String source, @Nullable String projectIdentifier, @Nonnull String content) {
+        this(source, projectIdentifier, content, null);
+    }
+
+    /** Returns an item that could not be read, it is reported as not imported. */
+    @Nonnull
+    public static CBOMImportItem unreadable(
+            @Nonnull String source, @Nullable String projectIdentifier, @Nonnull String error) {
+        return new CBOMImportItem(source, projectIdentifier, null, error);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.database.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.infrastructure.OrderedWorkerPool;
+import com.ibm.infrastructure.compliance.ComplianceResultCache;
+import com.ibm.infrastructure.compliance.IComplianceConfiguration;
+import com.ibm.infrastructure.database.IDatabaseConfiguration;
+import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Imports many CBOMs at once. The CBOMs are parsed and validated on a bounded pool while the
+ * calling thread stores the validated ones in batches, one transaction per batch.
+ */
+@Singleton
+public final class CBOMImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CBOMImportService.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Nonnull private final ICBOMReadRepository readRepository;
+    @Nonnull private final CBOMIngestionService ingestionService;
+    @Nonnull private final OrderedWorkerPool workerPool;
+    private final int batchSize;
+    private final long maxFileBytes;
+    private final long maxArchiveBytes;
+
+    public CBOMImportService(
+            @Nonnull ICBOMReadRepository readRepository,
+            @Nonnull IComplianceConfiguration complianceConfiguration,
+            @Nonnull ComplianceResultCache complianceResultCache,
+            @Nonnull IDatabaseConfiguration databaseConfiguration) {
+        this.readRepository = readRepository;
+        this.ingestionService =
+                new CBOMIngestionService(complianceConfiguration, complianceResultCache);
+        this.batchSize = databaseConfiguration.getImportBatchSize();
+        this.maxFileBytes = databaseConfiguration.getImportMaxFileBytes();
+        this.maxArchiveBytes = databaseConfiguration.getImportMaxArchiveBytes();
+        this.workerPool =
+                new OrderedWorkerPool("cbom-import", databaseConfiguration.getImportParallelism());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.workerPool.shutdown();
+    }
+
+    public long getMaxFileBytes() {
+        return maxFileBytes;
+    }
+
+    public long getMaxArchiveBytes() {
+        return maxArchiveBytes;
+    }
+
+    private record Validated(
+            @Nonnull CBOMImportItem item,
+            @Nullable String projectIdentifier,
+            @Nullable PreparedCBOM preparedCBOM,
+            @Nullable String error) {}
+
+    /**
+     * Imports the items and passes each result to the consumer, on the calling thread. The items
+     * are validated concurrently but handled in input order, see {@link
+     * OrderedWorkerPool#forEachOrdered}: invalid items are reported once the preceding items are
+     * handled, valid ones once their batch is stored. A CBOM replaces the stored CBOM of its
+     * project; if a project occurs more than once, the last occurrence is kept.
+     */
+    public void importCBOMs(
+            @Nonnull Iterator<CBOMImportItem> items,
+            @Nonnull Consumer<? super CBOMImportResult> consumer)
+            throws InterruptedException {
+        final Map<String, Validated> batch = new LinkedHashMap<>();
+        this.workerPool.forEachOrdered(
+                items,
+                this::validate,
+                validated -> {
+                    final PreparedCBOM preparedCBOM = validated.preparedCBOM();
+                    if (preparedCBOM == null) {
+                        consumer.accept(
+                                new CBOMImportResult(
+                                        validated.item().source(),
+                                        validated.projectIdentifier(),
+                                        null,
+                                        validated.error()));
+                        return;
+                    }
+                    final String projectIdentifier =
+                            preparedCBOM.readModel().getProjectIdentifier();
+                    // a transaction replaces each project once, so the last occurrence of a
+                    // project is stored last
+                    if (batch.containsKey(projectIdentifier)) {
+                        store(batch, consumer);
+                    }
+                    batch.put(projectIdentifier, validated);
+                    if (batch.size() >= this.batchSize) {
+                        store(batch, consumer);
+                    }
+                });
+        store(batch, consumer);
+    }
+
+    private void store(
+            @Nonnull Map<String, Validated> batch,
+            @Nonnull Consumer<? super CBOMImportResult> consumer) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final List<PreparedCBOM> preparedCBOMs =
+                batch.values().stream().map(Validated::preparedCBOM).toList();
+        @Nullable String error = null;
+        try {
+            final List<UUID> replaced =
+                    this.readRepository.replaceAll(
+                            preparedCBOMs.stream().map(PreparedCBOM::readModel).toList());
+            this.ingestionService.stored(preparedCBOMs, replaced);
+        } catch (IllegalStateException e) {
+            error = e.getMessage();
+        }
+        for (Validated validated : batch.values()) {
+            final CBOMReadModel readModel = validated.preparedCBOM().readModel();
+            consumer.accept(
+                    new CBOMImportResult(
+                            validated.item().source(),
+                            readModel.getProjectIdentifier(),
+                            error == null ? readModel.getId() : null,
+                            error));
+        }
+        batch.clear();
+    }
+
+    @Nonnull
+    private Validated validate(@Nonnull CBOMImportItem item) {
+        @Nullable String projectIdentifier = item.projectIdentifier();
+        if (item.content() == null) {
+            return new Validated(item, projectIdentifier, null, item.error());
+        }
+        try {
+            JsonNode cbomTree = OBJECT_MAPPER.readTree(item.content());
+            if (projectIdentifier == null) {
+                projectIdentifier = cbomTree.path("projectIdentifier").textValue();
+                cbomTree = cbomTree.path("cbom");
+                if (projectIdentifier == null || !cbomTree.isObject()) {
+                    return new Validated(
+                            item,
+                            projectIdentifier,
+                            null,
+                            "Expected {\"projectIdentifier\": \"...\", \"cbom\": {...}}");
+                }
+            }
+            CBOMIngestionService.validate(cbomTree);
+            return new Validated(
+                    item,
+                    projectIdentifier,
+                    this.ingestionService.prepare(projectIdentifier, cbomTree),
+                    null);
+        } catch (Exception e) {
+            LOGGER.debug("Could not import {}: {}", item.source(), e.getMessage());
+            return new Validated(item, projectIdentifier, null, e.getMessage());
+        }
+    }
+}
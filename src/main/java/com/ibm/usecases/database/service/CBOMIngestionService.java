@@ -0,0 +1,175 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.database.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.infrastructure.compliance.ComplianceResult;
+import com.ibm.infrastructure.compliance.ComplianceResultCache;
+import com.ibm.infrastructure.compliance.IComplianceConfiguration;
+import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.usecases.compliance.service.ComplianceStatusService;
+import com.ibm.usecases.database.errors.InvalidCBOM;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.ValidationMessage;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cyclonedx.Format;
+import org.cyclonedx.Version;
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Property;
+import org.cyclonedx.parsers.JsonParser;
+
+/** Turns uploaded CBOMs into read models, shared by the single and the bulk upload. */
+public final class CBOMIngestionService {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // loading a schema is expensive and a loaded schema is thread-safe, so each is loaded once
+    private static final Map<Version, JsonSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    @Nonnull private final ComplianceStatusService complianceStatusService;
+    @Nonnull private final ComplianceResultCache complianceResultCache;
+
+    public CBOMIngestionService(
+            @Nonnull IComplianceConfiguration complianceConfiguration,
+            @Nonnull ComplianceResultCache complianceResultCache) {
+        this.complianceStatusService = new ComplianceStatusService(complianceConfiguration);
+        this.complianceResultCache = complianceResultCache;
+    }
+
+    /** Parses the CBOM and validates it, see {@link #validate(JsonNode)}. */
+    @Nonnull
+    public static JsonNode parse(@Nonnull String cbomJson) throws InvalidCBOM {
+        final JsonNode cbomTree;
+        try {
+            cbomTree = OBJECT_MAPPER.readTree(cbomJson);
+        } catch (JsonProcessingException e) {
+            throw new InvalidCBOM(e.getOriginalMessage());
+        }
+        validate(cbomTree);
+        return cbomTree;
+    }
+
+    /**
+     * Validates the parsed CBOM against the CycloneDX JSON schema of its spec version.
+     *
+     * @throws InvalidCBOM if the spec version is not supported or the CBOM violates the schema
+     */
+    public static void validate(@Nonnull JsonNode cbomTree) throws InvalidCBOM {
+        final String specVersion = cbomTree.path("specVersion").textValue();
+        final Version version =
+                Arrays.stream(Version.values())
+                        .filter(candidate -> candidate.getFormats().contains(Format.JSON))
+                        .filter(candidate -> candidate.getVersionString().equals(specVersion))
+                        .findFirst()
+                        .orElseThrow(
+                                () -> new InvalidCBOM("unsupported specVersion " + specVersion));
+        final Set<ValidationMessage> violations;
+        try {
+            violations =
+                    SCHEMAS.computeIfAbsent(version, CBOMIngestionService::loadSchema)
+                            .validate(cbomTree);
+        } catch (UncheckedIOException e) {
+            throw new IllegalStateException(
+                    "Could not load the CycloneDX schema " + specVersion, e);
+        }
+        if (!violations.isEmpty()) {
+            throw new InvalidCBOM(violations.iterator().next().getMessage());
+        }
+    }
+
+    @Nonnull
+    private static JsonSchema loadSchema(@Nonnull Version version) {
+        try {
+            return new JsonParser().getJsonSchema(version, OBJECT_MAPPER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds the read model of a CBOM validated by {@link #validate(JsonNode)}. The tree is bound
+     * to the CycloneDX model once, for the metadata and the compliance status, and stored as is.
+     *
+     * @throws JsonProcessingException if the tree cannot be bound to the CycloneDX model
+     */
+    @Nonnull
+    public PreparedCBOM prepare(@Nonnull String projectIdentifier, @Nonnull JsonNode cbomTree)
+            throws JsonProcessingException {
+        final Bom bom = OBJECT_MAPPER.treeToValue(cbomTree, Bom.class);
+
+        @Nonnull UUID cbomUUID = UUID.randomUUID();
+        @Nonnull String repository = "manual-upload-" + cbomUUID;
+
+        @Nullable String revision = null;
+        @Nullable String packageFolder = null;
+        @Nullable String commit = null;
+
+        // extract amd override default properties with CBOM metadata
+        if (bom.getMetadata() != null && bom.getMetadata().getProperties() != null) {
+            for (Property property : bom.getMetadata().getProperties()) {
+                switch (property.getName()) {
+                    case "gitUrl" -> repository = property.getValue();
+                    case "revision" -> revision = property.getValue();
+                    case "commit" -> commit = property.getValue();
+                    case "subfolder" -> packageFolder = property.getValue();
+                    default -> {}
+                }
+            }
+        }
+        final CBOMReadModel model =
+                new CBOMReadModel(
+                        cbomUUID,
+                        projectIdentifier,
+                        repository,
+                        revision,
+                        packageFolder,
+                        commit,
+                        Timestamp.from(Instant.now()),
+                        cbomTree);
+        final ComplianceResult complianceResult = this.complianceStatusService.evaluate(bom);
+        model.setCompliant(ComplianceStatusService.isCompliant(complianceResult));
+        return new PreparedCBOM(model, complianceResult);
+    }
+
+    /** Updates the compliance cache after the CBOMs replaced the given read models. */
+    public void stored(
+            @Nonnull Collection<PreparedCBOM> preparedCBOMs, @Nonnull Collection<UUID> replaced) {
+        replaced.forEach(this.complianceResultCache::invalidate);
+        for (PreparedCBOM preparedCBOM : preparedCBOMs) {
+            if (!preparedCBOM.complianceResult().error()) {
+                this.complianceResultCache.put(
+                        preparedCBOM.readModel().getId(),
+                        this.complianceStatusService.getPolicyIdentifier(),
+                        preparedCBOM.complianceResult());
+            }
+        }
+    }
+}
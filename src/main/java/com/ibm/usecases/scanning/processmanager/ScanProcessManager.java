@@ -32,7 +32,10 @@ import com.ibm.domain.scanning.ScanAggregate;
 import com.ibm.domain.scanning.ScanId;
 import com.ibm.domain.scanning.ScanMetadata;
 import com.ibm.domain.scanning.errors.ScanResultForLanguageAlreadyExists;
+import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
 import com.ibm.infrastructure.errors.EntityNotFoundById;
+import com.ibm.infrastructure.progress.IStreamingProgressDispatcher;
 import com.ibm.infrastructure.scanning.IScanConfiguration;
 import com.ibm.usecases.scanning.commands.CloneGitRepositoryCommand;
 import com.ibm.usecases.scanning.commands.IdentifyPackageFolderCommand;
@@ -42,13 +45,17 @@ import com.ibm.usecases.scanning.commands.ResolvePurlCommand;
 import com.ibm.usecases.scanning.commands.ScanCommand;
 import com.ibm.usecases.scanning.errors.GitCloneFailed;
 import com.ibm.usecases.scanning.errors.GitCloneResultNotAvailable;
+import com.ibm.usecases.scanning.errors.LanguageScanFailed;
 import com.ibm.usecases.scanning.errors.NoCommitProvided;
 import com.ibm.usecases.scanning.errors.NoGitUrlSpecifiedForScan;
 import com.ibm.usecases.scanning.errors.NoIndexForProject;
 import com.ibm.usecases.scanning.errors.NoProjectDirectoryProvided;
 import com.ibm.usecases.scanning.errors.NoPurlSpecifiedForScan;
+import com.ibm.usecases.scanning.services.git.ChangeSetDTO;
 import com.ibm.usecases.scanning.services.git.CloneResultDTO;
+import com.ibm.usecases.scanning.services.git.GitMirrorCache;
 import com.ibm.usecases.scanning.services.git.GitService;
+import com.ibm.usecases.scanning.services.incremental.IncrementalScanService;
 import com.ibm.usecases.scanning.services.pkg.MavenPackageFinderService;
 import com.ibm.usecases.scanning.services.pkg.PypiPackageFinderService;
 import com.ibm.usecases.scanning.services.resolve.DepsDevService;
@@ -57,11 +64,19 @@ import com.ibm.usecases.scanning.services.resolve.PurlResolver;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
 import org.pqca.errors.CBOMSerializationFailed;
 import org.pqca.errors.ClientDisconnected;
@@ -75,8 +90,11 @@ import org.pqca.scanning.CBOM;
 import org.pqca.scanning.ScanResultDTO;
 import org.pqca.scanning.java.JavaScannerService;
 import org.pqca.scanning.python.PythonScannerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggregate> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanProcessManager.class);
 
     @Nonnull private final ScanId scanId;
     @Nonnull private final IProgressDispatcher progressDispatcher;
@@ -85,23 +103,69 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
     @Nullable private File projectDirectory;
     @Nonnull private final Map<Language, List<ProjectModule>> index;
     @Nullable private final String javaJarsDirPath;
-
+    private final int languageScanParallelism;
+    @Nullable private final GitMirrorCache gitMirrorCache;
+    private final boolean shallowClone;
+    @Nullable private final ICBOMReadRepository cbomReadRepository;
+    @Nonnull private final String scannerVersion;
+    private final boolean force;
+    private final boolean incrementalScan;
+    @Nullable private volatile Runnable completionCallback;
+    // steps of the scan being handled and end of the last step, to detect a lost next step
+    @Nonnull private final AtomicInteger activeSteps = new AtomicInteger();
+    private volatile long lastStepNanos = System.nanoTime();
+
+    /**
+     * @param cbomReadRepository used to reuse the CBOM of a previous scan of the same code, null
+     *     disables the reuse
+     * @param force if true, the code is scanned even if a previous result exists
+     */
+    @SuppressWarnings("java:S107")
     public ScanProcessManager(
             @Nonnull ScanId scanId,
             @Nonnull ICommandBus commandBus,
             @Nonnull IRepository<ScanId, ScanAggregate> repository,
             @Nonnull IProgressDispatcher progressDispatcher,
-            @Nonnull IScanConfiguration iScanConfiguration) {
+            @Nonnull IScanConfiguration iScanConfiguration,
+            @Nullable GitMirrorCache gitMirrorCache,
+            @Nullable ICBOMReadRepository cbomReadRepository,
+            boolean force) {
         super(commandBus, repository);
         this.scanId = scanId;
         this.progressDispatcher = progressDispatcher;
+        this.gitMirrorCache = gitMirrorCache;
+        this.cbomReadRepository = cbomReadRepository;
+        this.scannerVersion = iScanConfiguration.getScannerVersion();
+        this.force = force;
         this.baseCloneDirPath = iScanConfiguration.getBaseCloneDirPath();
         this.index = new EnumMap<>(Language.class);
         this.javaJarsDirPath = iScanConfiguration.getJavaDependencyJARSPath();
+        this.languageScanParallelism = iScanConfiguration.getLanguageScanParallelism();
+        this.shallowClone = iScanConfiguration.isShallowCloneEnabled();
+        this.incrementalScan = iScanConfiguration.isIncrementalScanEnabled();
     }
 
     @Override
     public void handle(@Nonnull ICommand command) throws Exception {
+        this.activeSteps.incrementAndGet();
+        try {
+            this.handleStep(command);
+        } finally {
+            this.lastStepNanos = System.nanoTime();
+            this.activeSteps.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns true if no step is running and none was handled for the given time: the next step
+     * of the scan was lost and the scan will not complete.
+     */
+    public boolean isStalled(@Nonnull Duration timeout) {
+        return this.activeSteps.get() == 0
+                && System.nanoTime() - this.lastStepNanos > timeout.toNanos();
+    }
+
+    private void handleStep(@Nonnull ICommand command) throws Exception {
         switch (command) {
             case ResolvePurlCommand resolvePurlCommand ->
                     this.handleResolvePurlCommand(resolvePurlCommand);
@@ -150,6 +214,13 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
 
             this.repository.save(scanAggregate);
 
+            // commit and package folder of github purls are known without a clone
+            if (purl.getType().equals(PackageURL.StandardTypes.GITHUB)
+                    && this.reusePreviousScan(scanAggregate)) {
+                this.compensate(command.id());
+                return;
+            }
+
             this.commandBus.send(
                     new CloneGitRepositoryCommand(command.id(), command.credentials()));
         } catch (Exception e) {
@@ -179,10 +250,46 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
                     new ProgressMessage(
                             ProgressMessageType.BRANCH, scanAggregate.getRevision().value()));
 
-            // clone git repository
             final GitService gitService =
                     new GitService(
-                            this.progressDispatcher, this.baseCloneDirPath, command.credentials());
+                            this.progressDispatcher,
+                            this.baseCloneDirPath,
+                            command.credentials(),
+                            this.gitMirrorCache,
+                            this.shallowClone);
+
+            // resolve the commit from the remote refs, a previous result may make the clone
+            // unnecessary
+            if (scanAggregate.getCommit().isEmpty()) {
+                try {
+                    final Optional<Commit> resolvedCommit =
+                            gitService.resolveCommit(gitUrl, scanAggregate.getRevision());
+                    if (resolvedCommit.isEmpty()
+                            && scanAggregate.getRevision().equals(ScanAggregate.REVISION_MAIN)) {
+                        // the repository has no `main`, try `master` without cloning
+                        this.retryWithMaster(scanAggregate, gitUrl, command);
+                        return;
+                    }
+                    if (resolvedCommit.isPresent()) {
+                        this.progressDispatcher.send(
+                                new ProgressMessage(
+                                        ProgressMessageType.REVISION_HASH,
+                                        resolvedCommit.get().hash()));
+                        scanAggregate.setCommitHash(resolvedCommit.get());
+                        this.repository.save(scanAggregate);
+                        if (scanAggregate.getPurl().isEmpty()
+                                && this.reusePreviousScan(scanAggregate)) {
+                            this.compensate(command.id());
+                            return;
+                        }
+                    }
+                } catch (GitCloneFailed e) {
+                    // the refs could not be listed, the clone reports the problem if there is one
+                    LOGGER.warn(e.getMessage());
+                }
+            }
+
+            // clone git repository
             final CloneResultDTO cloneResultDTO =
                     gitService.clone(
                             gitUrl,
@@ -197,21 +304,17 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
                 scanAggregate.setCommitHash(cloneResultDTO.commit());
             }
             this.repository.save(scanAggregate);
+            // the package folder of purls is identified in the next step
+            if (scanAggregate.getPurl().isEmpty() && this.reusePreviousScan(scanAggregate)) {
+                this.compensate(command.id());
+                return;
+            }
             // set subfolder
             this.commandBus.send(new IdentifyPackageFolderCommand(command.id()));
         } catch (GitCloneFailed gitCloneFailed) {
             // if previous attempted failed with `main`, try `master`
             if (scanAggregate.getRevision().equals(ScanAggregate.REVISION_MAIN)) {
-                // delete old aggregate
-                this.repository.delete(scanId);
-                // emit new scan command with `master` branch
-                this.commandBus.send(
-                        new RequestScanCommand(
-                                this.scanId,
-                                gitUrl.value(),
-                                "master",
-                                scanAggregate.getPackageFolder().map(Path::toString).orElse(null),
-                                command.credentials()));
+                this.retryWithMaster(scanAggregate, gitUrl, command);
             } else {
                 this.progressDispatcher.send(
                         new ProgressMessage(
@@ -227,6 +330,24 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
         }
     }
 
+    /** Restarts the scan with the `master` branch, if the repository has no `main` branch. */
+    private void retryWithMaster(
+            @Nonnull ScanAggregate scanAggregate,
+            @Nonnull GitUrl gitUrl,
+            @Nonnull CloneGitRepositoryCommand command)
+            throws Exception {
+        // delete old aggregate
+        this.repository.delete(scanId);
+        // emit new scan command with `master` branch
+        this.commandBus.send(
+                new RequestScanCommand(
+                        this.scanId,
+                        gitUrl.value(),
+                        "master",
+                        scanAggregate.getPackageFolder().map(Path::toString).orElse(null),
+                        command.credentials()));
+    }
+
     private void handleSetPackageFolderCommand(@Nonnull IdentifyPackageFolderCommand command)
             throws Exception {
         if (this.scanId != command.id()) {
@@ -263,6 +384,11 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
                             new ProgressMessage(
                                     ProgressMessageType.FOLDER, packagePath.get().toString()));
                 }
+                if (!purl.getType().equals(PackageURL.StandardTypes.GITHUB)
+                        && this.reusePreviousScan(scanAggregate)) {
+                    this.compensate(command.id());
+                    return;
+                }
             }
             // start indexing
             this.commandBus.send(new IndexModulesCommand(command.id()));
@@ -317,7 +443,9 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
                     ScanResultForLanguageAlreadyExists,
                     ClientDisconnected,
                     CBOMSerializationFailed,
-                    NoGitUrlSpecifiedForScan {
+                    NoGitUrlSpecifiedForScan,
+                    LanguageScanFailed,
+                    InterruptedException {
         if (this.scanId != command.id()) {
             return;
         }
@@ -334,85 +462,107 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
             final Commit commit = scanAggregate.getCommit().orElseThrow(NoCommitProvided::new);
             Optional.of(this.index).filter(m -> !m.isEmpty()).orElseThrow(NoIndexForProject::new);
 
+            final File projectDir =
+                    Optional.ofNullable(this.projectDirectory)
+                            .orElseThrow(NoProjectDirectoryProvided::new);
+
             // progress scan statistics
             final long startTime = System.currentTimeMillis();
-            int numberOfScannedLine;
-            int numberOfScannedFiles;
+            int numberOfScannedLine = 0;
+            int numberOfScannedFiles = 0;
+
+            // run the scanner of each indexed language concurrently
+            final Map<Language, Future<ScanResultDTO>> scanTasks = new EnumMap<>(Language.class);
+            final Map<Language, ScanResultDTO> scanResults = new EnumMap<>(Language.class);
+            LanguageScanFailed languageScanFailed = null;
+            // only rescan what changed since a previous scan of the repository, if possible
+            final Optional<IncrementalScanBase> incrementalScanBase =
+                    this.findIncrementalScanBase(scanAggregate, gitUrl, commit, projectDir);
+            if (incrementalScanBase.isPresent()) {
+                this.progressDispatcher.send(
+                        new ProgressMessage(
+                                ProgressMessageType.LABEL,
+                                "Scanning changes since commit "
+                                        + incrementalScanBase.get().commit().hash()));
+            }
 
-            // java
-            final JavaScannerService javaScannerService =
-                    new JavaScannerService(
-                            this.progressDispatcher,
-                            Optional.ofNullable(this.projectDirectory)
-                                    .orElseThrow(NoProjectDirectoryProvided::new));
-            javaScannerService.setRequireBuild(false);
-            javaScannerService.addJavaDependencyJar(this.javaJarsDirPath);
-
-            final ScanResultDTO javaScanResultDTO =
-                    javaScannerService.scan(this.index.get(Language.JAVA));
-            // update statistics
-            numberOfScannedLine = javaScanResultDTO.numberOfScannedLines();
-            numberOfScannedFiles = javaScanResultDTO.numberOfScannedFiles();
-
-            if (javaScanResultDTO.cbom() != null) {
-                // add metadata
-                javaScanResultDTO
-                        .cbom()
-                        .addMetadata(
-                                gitUrl.value(),
-                                scanAggregate.getRevision().value(),
-                                commit.hash(),
-                                scanAggregate.getPackageFolder().map(Path::toString).orElse(null));
-                // update statistics
-                scanAggregate.reportScanResults(
-                        new LanguageScan(
-                                Language.JAVA,
-                                new ScanMetadata(
-                                        javaScanResultDTO.startTime(),
-                                        javaScanResultDTO.endTime(),
-                                        javaScanResultDTO.numberOfScannedLines(),
-                                        javaScanResultDTO.numberOfScannedFiles()),
-                                javaScanResultDTO.cbom()));
+            try (final ExecutorService executorService =
+                    Executors.newFixedThreadPool(
+                            Math.min(this.languageScanParallelism, this.index.size()))) {
+                for (Map.Entry<Language, List<ProjectModule>> entry : this.index.entrySet()) {
+                    final Optional<LanguageScan> previousLanguageScan =
+                            incrementalScanBase.map(
+                                    base -> base.languageScans().get(entry.getKey()));
+                    scanTasks.put(
+                            entry.getKey(),
+                            executorService.submit(
+                                    () ->
+                                            previousLanguageScan.isPresent()
+                                                    ? this.scanIncrementally(
+                                                            entry.getKey(),
+                                                            projectDir,
+                                                            entry.getValue(),
+                                                            previousLanguageScan.get().cbom(),
+                                                            incrementalScanBase.get().changeSet())
+                                                    : this.scan(
+                                                            entry.getKey(),
+                                                            projectDir,
+                                                            entry.getValue())));
+                }
+                for (Map.Entry<Language, Future<ScanResultDTO>> scanTask : scanTasks.entrySet()) {
+                    try {
+                        scanResults.put(scanTask.getKey(), scanTask.getValue().get());
+                    } catch (ExecutionException e) {
+                        // a failing language does not cancel the scans of the other languages,
+                        // all failures are logged before the scan fails
+                        LOGGER.error(
+                                "Scan for language {} failed", scanTask.getKey(), e.getCause());
+                        if (languageScanFailed == null) {
+                            languageScanFailed =
+                                    new LanguageScanFailed(scanTask.getKey(), e.getCause());
+                        }
+                    }
+                }
+            }
+            // a partial CBOM is not stored, it would be reused as the complete result of the
+            // commit and as the base of incremental scans
+            if (languageScanFailed != null) {
+                throw languageScanFailed;
             }
-            CBOM consolidatedCBOM = javaScanResultDTO.cbom();
 
-            // python
-            final PythonScannerService pythonScannerService =
-                    new PythonScannerService(
-                            this.progressDispatcher,
-                            Optional.ofNullable(this.projectDirectory)
-                                    .orElseThrow(NoProjectDirectoryProvided::new));
-            final ScanResultDTO pythonScanResultDTO =
-                    pythonScannerService.scan(this.index.get(Language.PYTHON));
-            // update statistics
-            numberOfScannedLine += pythonScanResultDTO.numberOfScannedLines();
-            numberOfScannedFiles += pythonScanResultDTO.numberOfScannedFiles();
-
-            if (pythonScanResultDTO.cbom() != null) {
+            CBOM consolidatedCBOM = null;
+            for (Map.Entry<Language, ScanResultDTO> entry : scanResults.entrySet()) {
+                final ScanResultDTO scanResultDTO = entry.getValue();
+                // update statistics
+                numberOfScannedLine += scanResultDTO.numberOfScannedLines();
+                numberOfScannedFiles += scanResultDTO.numberOfScannedFiles();
+
+                if (scanResultDTO.cbom() == null) {
+                    continue;
+                }
                 // add metadata
-                pythonScanResultDTO
+                scanResultDTO
                         .cbom()
                         .addMetadata(
                                 gitUrl.value(),
                                 scanAggregate.getRevision().value(),
                                 commit.hash(),
                                 scanAggregate.getPackageFolder().map(Path::toString).orElse(null));
-
                 // update statistics
                 scanAggregate.reportScanResults(
                         new LanguageScan(
-                                Language.PYTHON,
+                                entry.getKey(),
                                 new ScanMetadata(
-                                        pythonScanResultDTO.startTime(),
-                                        pythonScanResultDTO.endTime(),
-                                        pythonScanResultDTO.numberOfScannedLines(),
-                                        pythonScanResultDTO.numberOfScannedFiles()),
-                                pythonScanResultDTO.cbom()));
+                                        scanResultDTO.startTime(),
+                                        scanResultDTO.endTime(),
+                                        scanResultDTO.numberOfScannedLines(),
+                                        scanResultDTO.numberOfScannedFiles()),
+                                scanResultDTO.cbom()));
 
                 if (consolidatedCBOM != null) {
-                    consolidatedCBOM.merge(pythonScanResultDTO.cbom());
+                    consolidatedCBOM.merge(scanResultDTO.cbom());
                 } else {
-                    consolidatedCBOM = pythonScanResultDTO.cbom();
+                    consolidatedCBOM = scanResultDTO.cbom();
                 }
             }
 
@@ -432,13 +582,12 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
                     new ProgressMessage(
                             ProgressMessageType.SCANNED_NUMBER_OF_LINES,
                             String.valueOf(numberOfScannedLine)));
-            this.progressDispatcher.send(
-                    new ProgressMessage(
-                            ProgressMessageType.CBOM,
-                            Optional.ofNullable(consolidatedCBOM)
-                                    .orElseThrow(CBOMSerializationFailed::new)
-                                    .toJSON()
-                                    .toString()));
+            // streamed from the JSON tree, the CBOM can be too large to be held as a string
+            IStreamingProgressDispatcher.sendCBOM(
+                    this.progressDispatcher,
+                    Optional.ofNullable(consolidatedCBOM)
+                            .orElseThrow(CBOMSerializationFailed::new)
+                            .toJSON());
             this.progressDispatcher.send(
                     new ProgressMessage(ProgressMessageType.LABEL, "Finished"));
         } catch (Exception | NoSuchMethodError e) { // catch NoSuchMethodError: see issue #138
@@ -450,6 +599,201 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
         }
     }
 
+    /**
+     * Finishes the scan with the results of a previous scan, if the same commit and package folder
+     * were already scanned by the same scanner version.
+     *
+     * @return true if a previous result was reused
+     */
+    private boolean reusePreviousScan(@Nonnull ScanAggregate scanAggregate)
+            throws ScanResultForLanguageAlreadyExists, ClientDisconnected {
+        if (this.force || this.cbomReadRepository == null) {
+            return false;
+        }
+        final Optional<GitUrl> gitUrl = scanAggregate.getGitUrl();
+        final Optional<Commit> commit = scanAggregate.getCommit();
+        if (gitUrl.isEmpty() || commit.isEmpty()) {
+            return false;
+        }
+        final Optional<CBOMReadModel> previous =
+                this.findPreviousScan(
+                        this.cbomReadRepository, scanAggregate, gitUrl.get(), commit.get());
+        if (previous.isEmpty()) {
+            return false;
+        }
+        // the read model shares the id of the scan that produced it
+        final Optional<List<LanguageScan>> previousLanguageScans =
+                this.repository
+                        .read(new ScanId(previous.get().getId()))
+                        .flatMap(ScanAggregate::getLanguageScans)
+                        .filter(languageScans -> !languageScans.isEmpty());
+        if (previousLanguageScans.isEmpty()) {
+            return false;
+        }
+
+        LOGGER.info(
+                "Reusing CBOM of scan {} for {}@{}",
+                previous.get().getId(),
+                gitUrl.get().value(),
+                commit.get().hash());
+        for (LanguageScan languageScan : previousLanguageScans.get()) {
+            scanAggregate.reportScanResults(languageScan);
+        }
+        scanAggregate.scanFinished();
+        this.repository.save(scanAggregate);
+
+        this.progressDispatcher.send(
+                new ProgressMessage(
+                        ProgressMessageType.LABEL, "Reusing the result of a previous scan"));
+        IStreamingProgressDispatcher.sendCBOM(this.progressDispatcher, previous.get().getBom());
+        this.progressDispatcher.send(new ProgressMessage(ProgressMessageType.LABEL, "Finished"));
+        return true;
+    }
+
+    /**
+     * Returns the latest CBOM of the same repository and package folder that was produced by the
+     * same scanner version.
+     *
+     * @param commit the commit of the CBOM, null for any commit
+     */
+    @Nonnull
+    private Optional<CBOMReadModel> findPreviousScan(
+            @Nonnull ICBOMReadRepository readRepository,
+            @Nonnull ScanAggregate scanAggregate,
+            @Nonnull GitUrl gitUrl,
+            @Nullable Commit commit) {
+        final Optional<Path> packageFolder = scanAggregate.getPackageFolder();
+        return readRepository
+                .findBy(gitUrl, commit, packageFolder.orElse(null))
+                // findBy ignores the folder if null, the results of a sub folder
+                // must not be used for the whole repository
+                .filter(
+                        readModel ->
+                                Objects.equals(
+                                        readModel.getPackageFolder(),
+                                        packageFolder.map(Path::toString).orElse(null)))
+                .filter(readModel -> this.scannerVersion.equals(readModel.getScannerVersion()));
+    }
+
+    /**
+     * Looks up the previous scan of the repository at another commit and the changes since then.
+     *
+     * @return empty if the project has to be scanned completely
+     */
+    @Nonnull
+    private Optional<IncrementalScanBase> findIncrementalScanBase(
+            @Nonnull ScanAggregate scanAggregate,
+            @Nonnull GitUrl gitUrl,
+            @Nonnull Commit commit,
+            @Nonnull File projectDir) {
+        if (!this.incrementalScan || this.force || this.cbomReadRepository == null) {
+            return Optional.empty();
+        }
+        final Optional<CBOMReadModel> previous =
+                this.findPreviousScan(this.cbomReadRepository, scanAggregate, gitUrl, null)
+                        .filter(readModel -> readModel.getCommit() != null)
+                        .filter(readModel -> !readModel.getCommit().equals(commit.hash()));
+        if (previous.isEmpty()) {
+            return Optional.empty();
+        }
+        final Map<Language, LanguageScan> previousLanguageScans = new EnumMap<>(Language.class);
+        this.repository
+                .read(new ScanId(previous.get().getId()))
+                .flatMap(ScanAggregate::getLanguageScans)
+                .ifPresent(
+                        languageScans ->
+                                languageScans.forEach(
+                                        languageScan ->
+                                                previousLanguageScans.put(
+                                                        languageScan.language(), languageScan)));
+        if (previousLanguageScans.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            final Commit previousCommit = new Commit(previous.get().getCommit());
+            return new GitService(this.baseCloneDirPath, null)
+                    .diff(projectDir, previousCommit, commit)
+                    .map(
+                            changeSet ->
+                                    new IncrementalScanBase(
+                                            previousCommit, previousLanguageScans, changeSet));
+        } catch (IOException e) {
+            LOGGER.warn("Could not diff against the previous scan, scanning completely", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Rescans the modules affected by the changes and merges the findings into the previous CBOM
+     * of the language.
+     */
+    @Nonnull
+    private ScanResultDTO scanIncrementally(
+            @Nonnull Language language,
+            @Nonnull File projectDir,
+            @Nonnull List<ProjectModule> projectModules,
+            @Nonnull CBOM previousCBOM,
+            @Nonnull ChangeSetDTO changeSet)
+            throws Exception {
+        final IncrementalScanService incrementalScanService =
+                new IncrementalScanService(projectDir);
+        final List<ProjectModule> affectedModules =
+                incrementalScanService.affectedModules(projectModules, changeSet);
+        final CBOM cbom =
+                incrementalScanService.prune(
+                        previousCBOM,
+                        incrementalScanService.stalePaths(affectedModules, changeSet));
+        LOGGER.info(
+                "Rescanning {} of {} {} modules",
+                affectedModules.size(),
+                projectModules.size(),
+                language);
+        if (affectedModules.isEmpty()) {
+            final long now = System.currentTimeMillis();
+            return new ScanResultDTO(now, now, 0, 0, cbom);
+        }
+        final ScanResultDTO rescan = this.scan(language, projectDir, affectedModules);
+        if (rescan.cbom() != null) {
+            cbom.merge(rescan.cbom());
+        }
+        return new ScanResultDTO(
+                rescan.startTime(),
+                rescan.endTime(),
+                rescan.numberOfScannedLines(),
+                rescan.numberOfScannedFiles(),
+                cbom);
+    }
+
+    @Nonnull
+    private ScanResultDTO scan(
+            @Nonnull Language language,
+            @Nonnull File projectDir,
+            @Nonnull List<ProjectModule> projectModules)
+            throws Exception {
+        return switch (language) {
+            case JAVA -> {
+                final JavaScannerService javaScannerService =
+                        new JavaScannerService(this.progressDispatcher, projectDir);
+                javaScannerService.setRequireBuild(false);
+                javaScannerService.addJavaDependencyJar(this.javaJarsDirPath);
+                yield javaScannerService.scan(projectModules);
+            }
+            case PYTHON -> {
+                final PythonScannerService pythonScannerService =
+                        new PythonScannerService(this.progressDispatcher, projectDir);
+                yield pythonScannerService.scan(projectModules);
+            }
+        };
+    }
+
+    /**
+     * Registers a callback that is run when the scan is done, successfully or not. It may be run
+     * more than once.
+     */
+    public void onCompletion(@Nonnull Runnable callback) {
+        this.completionCallback = callback;
+    }
+
     @Override
     public void compensate(@Nonnull ScanId id) {
         // unregister process manager
@@ -471,5 +815,11 @@ public final class ScanProcessManager extends ProcessManager<ScanId, ScanAggrega
                                 // ignore
                             }
                         });
+        Optional.ofNullable(this.completionCallback).ifPresent(Runnable::run);
     }
+
+    private record IncrementalScanBase(
+            @Nonnull Commit commit,
+            @Nonnull Map<Language, LanguageScan> languageScans,
+            @Nonnull ChangeSetDTO changeSet) {}
 }
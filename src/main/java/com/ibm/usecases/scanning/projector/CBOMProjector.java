@@ -30,9 +30,14 @@ import com.ibm.domain.scanning.ScanAggregate;
 import com.ibm.domain.scanning.ScanId;
 import com.ibm.domain.scanning.errors.NoValidProjectIdentifierForScan;
 import com.ibm.domain.scanning.events.ScanFinishedEvent;
+import com.ibm.infrastructure.compliance.ComplianceResult;
+import com.ibm.infrastructure.compliance.ComplianceResultCache;
+import com.ibm.infrastructure.compliance.IComplianceConfiguration;
 import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
 import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
 import com.ibm.infrastructure.errors.EntityNotFoundById;
+import com.ibm.infrastructure.scanning.IScanConfiguration;
+import com.ibm.usecases.compliance.service.ComplianceStatusService;
 import com.ibm.usecases.scanning.errors.NoCBOMForScan;
 import com.ibm.usecases.scanning.errors.NoGitUrlSpecifiedForScan;
 import io.quarkus.runtime.StartupEvent;
@@ -52,6 +57,9 @@ import org.slf4j.LoggerFactory;
 public class CBOMProjector extends Projector<UUID, CBOMReadModel> {
     private static final Logger LOGGER = LoggerFactory.getLogger(CBOMProjector.class);
     @Nonnull private final IRepository<ScanId, ScanAggregate> sourceRepository;
+    @Nonnull private final String scannerVersion;
+    @Nonnull private final ComplianceStatusService complianceStatusService;
+    @Nonnull private final ComplianceResultCache complianceResultCache;
 
     void onStart(@Observes StartupEvent event) {
         this.domainEventBus.subscribe(this);
@@ -60,9 +68,15 @@ public class CBOMProjector extends Projector<UUID, CBOMReadModel> {
     public CBOMProjector(
             @Nonnull IDomainEventBus domainEventBus,
             @Nonnull ICBOMReadRepository repository,
-            @Nonnull IRepository<ScanId, ScanAggregate> sourceRepository) {
+            @Nonnull IRepository<ScanId, ScanAggregate> sourceRepository,
+            @Nonnull IScanConfiguration configuration,
+            @Nonnull IComplianceConfiguration complianceConfiguration,
+            @Nonnull ComplianceResultCache complianceResultCache) {
         super(domainEventBus, repository);
         this.sourceRepository = sourceRepository;
+        this.scannerVersion = configuration.getScannerVersion();
+        this.complianceStatusService = new ComplianceStatusService(complianceConfiguration);
+        this.complianceResultCache = complianceResultCache;
     }
 
     @Override
@@ -88,7 +102,11 @@ public class CBOMProjector extends Projector<UUID, CBOMReadModel> {
         if (this.repository instanceof ICBOMReadRepository cbomReadRepository) {
             cbomReadRepository
                     .findBy(projectIdentifier)
-                    .ifPresent(crm -> this.repository.delete(crm.getId()));
+                    .ifPresent(
+                            crm -> {
+                                this.repository.delete(crm.getId());
+                                this.complianceResultCache.invalidate(crm.getId());
+                            });
         }
         // build merged CBOM
         final List<CBOM> cbomList =
@@ -122,9 +140,21 @@ public class CBOMProjector extends Projector<UUID, CBOMReadModel> {
                         scanAggregate.getPackageFolder().map(Path::toString).orElse(null),
                         scanAggregate.getCommit().map(Commit::hash).orElse(null),
                         scanFinishedEvent.getTimestamp(),
-                        mergedCBOM.toJSON());
+                        mergedCBOM.toJSON(),
+                        this.scannerVersion);
+        final ComplianceResult complianceResult =
+                this.complianceStatusService.evaluate(mergedCBOM.cycloneDXbom());
+        cbomReadModel.setCompliant(ComplianceStatusService.isCompliant(complianceResult));
         // save read model
         this.repository.save(cbomReadModel);
+        // the read model may replace one with the same id (the scan was projected before)
+        this.complianceResultCache.invalidate(cbomReadModel.getId());
+        if (!complianceResult.error()) {
+            this.complianceResultCache.put(
+                    cbomReadModel.getId(),
+                    this.complianceStatusService.getPolicyIdentifier(),
+                    complianceResult);
+        }
         LOGGER.info("Stored CBOM for {}", projectIdentifier);
     }
 }
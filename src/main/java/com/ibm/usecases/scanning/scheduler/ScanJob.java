@@ -0,0 +1,58 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.scanning.scheduler;
+
+import com.ibm.domain.scanning.ScanId;
+import com.ibm.domain.scanning.authentication.ICredentials;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.pqca.progress.IProgressDispatcher;
+
+public record ScanJob(
+        @Nonnull ScanId scanId,
+        @Nonnull String scanUrl,
+        @Nullable String branch,
+        @Nullable String subfolder,
+        @Nullable ICredentials credentials,
+        boolean force,
+        @Nonnull ScanPriority priority,
+        @Nonnull IProgressDispatcher progressDispatcher) {
+
+    @Nonnull
+    public ScanJob withProgressDispatcher(@Nonnull IProgressDispatcher dispatcher) {
+        return new ScanJob(
+                scanId, scanUrl, branch, subfolder, credentials, force, priority, dispatcher);
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName()
+                + "[scanId="
+                + scanId
+                + ", scanUrl="
+                + scanUrl
+                + ", branch="
+                + branch
+                + ", priority="
+                + priority
+                + "]";
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.scanning.scheduler;
+
+import app.bootstrap.core.ddd.IRepository;
+import com.ibm.domain.scanning.ScanAggregate;
+import com.ibm.domain.scanning.ScanId;
+import com.ibm.infrastructure.CommandBus;
+import com.ibm.infrastructure.database.readmodels.CBOMReadModel;
+import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
+import com.ibm.infrastructure.progress.JournalingProgressDispatcher;
+import com.ibm.infrastructure.progress.ProgressJournal;
+import com.ibm.infrastructure.scanning.IScanConfiguration;
+import com.ibm.usecases.scanning.commands.CloneGitRepositoryCommand;
+import com.ibm.usecases.scanning.commands.IdentifyPackageFolderCommand;
+import com.ibm.usecases.scanning.commands.IndexModulesCommand;
+import com.ibm.usecases.scanning.commands.RequestScanCommand;
+import com.ibm.usecases.scanning.commands.ResolvePurlCommand;
+import com.ibm.usecases.scanning.commands.ScanCommand;
+import com.ibm.usecases.scanning.errors.ScanQueueFull;
+import com.ibm.usecases.scanning.processmanager.ScanProcessManager;
+import com.ibm.usecases.scanning.services.git.GitMirrorCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.pqca.errors.ClientDisconnected;
+import org.pqca.progress.ProgressMessage;
+import org.pqca.progress.ProgressMessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admission control for scans. At most {@link IScanConfiguration#getMaxConcurrentScans()} scans
+ * run at the same time, further scans wait in a bounded queue ordered by priority and arrival.
+ */
+@Singleton
+public final class ScanScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanScheduler.class);
+
+    @Nonnull private final CommandBus commandBus;
+    // shared by all scans, so that the projector reads the snapshots written by the scans
+    @Nonnull private final IRepository<ScanId, ScanAggregate> scanRepository;
+    @Nonnull private final IScanConfiguration configuration;
+    @Nonnull private final GitMirrorCache gitMirrorCache;
+    @Nonnull private final ICBOMReadRepository cbomReadRepository;
+    @Nonnull private final ProgressJournal progressJournal;
+    private final int maxConcurrentScans;
+    private final int queueCapacity;
+
+    // guarded by this
+    @Nonnull private final PriorityQueue<QueuedScan> queue;
+    @Nonnull private final Set<ScanJob> running;
+    @Nonnull private final AtomicLong sequence;
+
+    // process managers of the running scans, checked by the watchdog for lost steps
+    @Nonnull private final Map<ScanJob, ScanProcessManager> processManagers;
+    @Nonnull private final Duration stallTimeout;
+    @Nonnull private final ScheduledExecutorService watchdog;
+
+    public ScanScheduler(
+            @Nonnull CommandBus commandBus,
+            @Nonnull IRepository<ScanId, ScanAggregate> scanRepository,
+            @Nonnull IScanConfiguration configuration,
+            @Nonnull GitMirrorCache gitMirrorCache,
+            @Nonnull ICBOMReadRepository cbomReadRepository,
+            @Nonnull ProgressJournal progressJournal,
+            @Nonnull MeterRegistry meterRegistry) {
+        this.commandBus = commandBus;
+        this.scanRepository = scanRepository;
+        this.configuration = configuration;
+        this.gitMirrorCache = gitMirrorCache;
+        this.cbomReadRepository = cbomReadRepository;
+        this.progressJournal = progressJournal;
+        this.maxConcurrentScans = configuration.getMaxConcurrentScans();
+        this.queueCapacity = configuration.getScanQueueCapacity();
+        this.queue =
+                new PriorityQueue<>(
+                        Comparator.comparing((QueuedScan queued) -> queued.job().priority())
+                                .thenComparingLong(QueuedScan::sequence));
+        this.running = new HashSet<>();
+        this.sequence = new AtomicLong();
+        this.processManagers = new ConcurrentHashMap<>();
+        this.stallTimeout = configuration.getScanStallTimeout();
+        this.watchdog =
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("scan-watchdog").daemon().factory());
+        final long checkIntervalSeconds = Math.max(1, this.stallTimeout.toSeconds() / 4);
+        this.watchdog.scheduleWithFixedDelay(
+                this::abortStalledScans,
+                checkIntervalSeconds,
+                checkIntervalSeconds,
+                TimeUnit.SECONDS);
+
+        Gauge.builder("cbomkit.scans.queued", this, ScanScheduler::queuedScans)
+                .description("Number of scans waiting to be started")
+                .register(meterRegistry);
+        Gauge.builder("cbomkit.scans.running", this, ScanScheduler::runningScans)
+                .description("Number of running scans")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.watchdog.shutdownNow();
+    }
+
+    /**
+     * Starts the scan right away if there is capacity, otherwise queues it. The progress of the
+     * scan is recorded in the {@link ProgressJournal}, so that other clients can follow it.
+     *
+     * @throws ScanQueueFull if the scan can neither be started nor queued
+     */
+    public void submit(@Nonnull ScanJob scanJob) throws ScanQueueFull {
+        this.progressJournal.open(scanJob.scanId());
+        final ScanJob job =
+                scanJob.withProgressDispatcher(
+                        new JournalingProgressDispatcher(
+                                scanJob.scanId(),
+                                this.progressJournal,
+                                scanJob.progressDispatcher(),
+                                // the read model shares the id of the scan
+                                () ->
+                                        this.cbomReadRepository
+                                                .read(scanJob.scanId().getUuid())
+                                                .map(CBOMReadModel::getBom)));
+        final boolean startNow;
+        boolean queueFull = false;
+        synchronized (this) {
+            startNow = this.running.size() < this.maxConcurrentScans;
+            if (startNow) {
+                this.running.add(job);
+            } else if (this.queue.size() < this.queueCapacity) {
+                this.queue.add(new QueuedScan(job, this.sequence.incrementAndGet()));
+                LOGGER.info("Queued {}", job);
+            } else {
+                queueFull = true;
+            }
+        }
+        if (queueFull) {
+            this.progressJournal.complete(job.scanId());
+            throw new ScanQueueFull(this.queueCapacity);
+        }
+
+        if (!startNow) {
+            this.reportQueuePositions();
+        } else if (!this.start(job)) {
+            // the command bus is saturated, reject like a full queue
+            throw new ScanQueueFull(this.queueCapacity);
+        }
+    }
+
+    /** Returns true if the scan was started, false if the command bus rejected it. */
+    private boolean start(@Nonnull ScanJob job) {
+        final ScanProcessManager scanProcessManager =
+                new ScanProcessManager(
+                        job.scanId(),
+                        this.commandBus,
+                        this.scanRepository,
+                        job.progressDispatcher(),
+                        this.configuration,
+                        this.gitMirrorCache,
+                        this.cbomReadRepository,
+                        job.force());
+        final AtomicBoolean released = new AtomicBoolean(false);
+        final Runnable release =
+                () -> {
+                    if (released.compareAndSet(false, true)) {
+                        this.release(job);
+                    }
+                };
+        scanProcessManager.onCompletion(release);
+        this.processManagers.put(job, scanProcessManager);
+        this.commandBus.register(
+                scanProcessManager,
+                List.of(
+                        ResolvePurlCommand.class,
+                        CloneGitRepositoryCommand.class,
+                        IdentifyPackageFolderCommand.class,
+                        IndexModulesCommand.class,
+                        ScanCommand.class));
+
+        try {
+            job.progressDispatcher()
+                    .send(new ProgressMessage(ProgressMessageType.LABEL, "Starting..."));
+            // the only command of a scan that may be rejected, the following ones are not
+            this.commandBus
+                    .trySend(
+                            new RequestScanCommand(
+                                    job.scanId(),
+                                    job.scanUrl(),
+                                    job.branch(),
+                                    job.subfolder(),
+                                    job.credentials()))
+                    .whenComplete(
+                            (success, throwable) -> {
+                                // the scan request was not accepted, no process manager step
+                                // will follow
+                                if (throwable != null || !Boolean.TRUE.equals(success)) {
+                                    scanProcessManager.compensate(job.scanId());
+                                }
+                            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Could not start {}, command bus is saturated", job);
+            scanProcessManager.compensate(job.scanId());
+            return false;
+        } catch (Exception e) {
+            LOGGER.error("Could not start {}", job, e);
+            scanProcessManager.compensate(job.scanId());
+            return true;
+        }
+    }
+
+    private void release(@Nonnull ScanJob job) {
+        this.processManagers.remove(job);
+        final List<ScanJob> next = new ArrayList<>();
+        final List<ScanJob> dropped = new ArrayList<>();
+        synchronized (this) {
+            if (!this.running.remove(job)) {
+                return;
+            }
+            while (this.running.size() < this.maxConcurrentScans && !this.queue.isEmpty()) {
+                final ScanJob queued = this.queue.poll().job();
+                if (isRequesterDisconnected(queued)) {
+                    dropped.add(queued);
+                    continue;
+                }
+                this.running.add(queued);
+                next.add(queued);
+            }
+        }
+        this.progressJournal.complete(job.scanId());
+        for (ScanJob queued : dropped) {
+            LOGGER.info("Removed {} from queue, client disconnected", queued);
+            this.progressJournal.complete(queued.scanId());
+        }
+        for (ScanJob queued : next) {
+            if (!this.start(queued)) {
+                sendError(queued, "The server is busy, please try again later");
+            }
+        }
+        if (!next.isEmpty()) {
+            this.reportQueuePositions();
+        }
+    }
+
+    /**
+     * Aborts the running scans whose next step was lost, e.g. because a domain event listener
+     * failed to dispatch it. Their slots would never be released otherwise.
+     */
+    private void abortStalledScans() {
+        for (Map.Entry<ScanJob, ScanProcessManager> entry : this.processManagers.entrySet()) {
+            if (!entry.getValue().isStalled(this.stallTimeout)) {
+                continue;
+            }
+            LOGGER.warn("Aborting {}, no step for {}", entry.getKey(), this.stallTimeout);
+            sendError(entry.getKey(), "The scan stalled and was aborted");
+            try {
+                entry.getValue().compensate(entry.getKey().scanId());
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not abort {}", entry.getKey(), e);
+                this.release(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Sends the position in the queue to every waiting client. The progress message types are
+     * fixed by the scanner library, therefore the position is sent as a label.
+     */
+    private void reportQueuePositions() {
+        final List<ScanJob> waiting;
+        synchronized (this) {
+            waiting =
+                    this.queue.stream()
+                            .sorted(this.queue.comparator())
+                            .map(QueuedScan::job)
+                            .toList();
+        }
+        for (int i = 0; i < waiting.size(); i++) {
+            final ScanJob job = waiting.get(i);
+            boolean disconnected = false;
+            try {
+                job.progressDispatcher()
+                        .send(
+                                new ProgressMessage(
+                                        ProgressMessageType.LABEL,
+                                        "Waiting in queue (position "
+                                                + (i + 1)
+                                                + " of "
+                                                + waiting.size()
+                                                + ")"));
+            } catch (ClientDisconnected e) {
+                disconnected = true;
+            }
+            if (disconnected || isRequesterDisconnected(job)) {
+                // nobody is waiting for the result anymore, a running scan would be kept
+                final boolean removed;
+                synchronized (this) {
+                    removed = this.queue.removeIf(queued -> queued.job().equals(job));
+                }
+                if (removed) {
+                    LOGGER.info("Removed {} from queue, client disconnected", job);
+                    this.progressJournal.complete(job.scanId());
+                }
+            }
+        }
+    }
+
+    private static boolean isRequesterDisconnected(@Nonnull ScanJob job) {
+        return job.progressDispatcher() instanceof JournalingProgressDispatcher dispatcher
+                && dispatcher.isRequesterDisconnected();
+    }
+
+    private int queuedScans() {
+        synchronized (this) {
+            return this.queue.size();
+        }
+    }
+
+    private int runningScans() {
+        synchronized (this) {
+            return this.running.size();
+        }
+    }
+
+    private static void sendError(@Nonnull ScanJob job, @Nonnull String message) {
+        try {
+            job.progressDispatcher().send(new ProgressMessage(ProgressMessageType.ERROR, message));
+        } catch (ClientDisconnected e) {
+            // nothing
+        }
+    }
+
+    private record QueuedScan(@Nonnull ScanJob job, long sequence) {}
+}
@@ -0,0 +1,283 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.scanning.services.git;
+
+import com.ibm.domain.scanning.GitUrl;
+import com.ibm.infrastructure.scanning.IScanConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ProgressMonitor;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a bare mirror per Git repository on disk. A repository is downloaded once, later scans
+ * only fetch the new objects and create their working copy by a local clone from the mirror.
+ * Mirrors are evicted in least recently used order when the disk budget is exceeded.
+ */
+@Singleton
+public final class GitMirrorCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitMirrorCache.class);
+    private static final List<RefSpec> REF_SPECS =
+            List.of(
+                    new RefSpec("+refs/heads/*:refs/heads/*"),
+                    new RefSpec("+refs/tags/*:refs/tags/*"));
+
+    @Nonnull private final File mirrorDir;
+    private final long maxBytes;
+    @Nonnull private final Map<String, Mirror> mirrors;
+    @Nonnull private final Counter hits;
+    @Nonnull private final Counter misses;
+    @Nonnull private final Counter evictions;
+
+    public GitMirrorCache(
+            @Nonnull IScanConfiguration configuration, @Nonnull MeterRegistry meterRegistry) {
+        this.mirrorDir = new File(configuration.getGitMirrorDirPath());
+        this.maxBytes = configuration.getGitMirrorCacheMaxBytes();
+        this.mirrors = new ConcurrentHashMap<>();
+        this.hits = meterRegistry.counter("cbomkit.git.mirror.cache.hits");
+        this.misses = meterRegistry.counter("cbomkit.git.mirror.cache.misses");
+        this.evictions = meterRegistry.counter("cbomkit.git.mirror.cache.evictions");
+        Gauge.builder("cbomkit.git.mirror.cache.size", this, GitMirrorCache::totalBytes)
+                .description("Disk space used by the Git mirrors in bytes")
+                .register(meterRegistry);
+        if (isEnabled()) {
+            loadExistingMirrors();
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.maxBytes > 0;
+    }
+
+    /**
+     * Updates the mirror of the given repository and clones it into the target directory.
+     *
+     * @return the cloned repository, its origin points to the original url
+     */
+    @Nonnull
+    public Git cloneInto(
+            @Nonnull GitUrl gitUrl,
+            @Nonnull File targetDirectory,
+            @Nullable ProgressMonitor progressMonitor)
+            throws GitAPIException, IOException {
+        final String key = keyOf(gitUrl);
+        final Mirror mirror =
+                this.mirrors.computeIfAbsent(key, k -> new Mirror(new File(this.mirrorDir, k)));
+
+        update(mirror, gitUrl, progressMonitor);
+
+        final Git git;
+        mirror.lock.readLock().lock();
+        try {
+            mirror.lastAccess = System.currentTimeMillis();
+            git =
+                    Git.cloneRepository()
+                            .setURI(mirror.directory.toURI().toString())
+                            .setDirectory(targetDirectory)
+                            .setCloneAllBranches(true)
+                            .call();
+        } finally {
+            mirror.lock.readLock().unlock();
+        }
+        final StoredConfig config = git.getRepository().getConfig();
+        config.setString("remote", "origin", "url", gitUrl.value());
+        config.save();
+
+        evictIfNeeded(key);
+        return git;
+    }
+
+    private void update(
+            @Nonnull Mirror mirror,
+            @Nonnull GitUrl gitUrl,
+            @Nullable ProgressMonitor progressMonitor)
+            throws GitAPIException, IOException {
+        final long requestedAt = System.nanoTime();
+        mirror.lock.writeLock().lock();
+        try {
+            // a fetch that started after this request was issued already brought the mirror
+            // up to date, concurrent scans of the same repository share it
+            if (mirror.lastFetchStartedAt - requestedAt >= 0) {
+                this.hits.increment();
+                return;
+            }
+            final long fetchStartedAt = System.nanoTime();
+            final boolean exists = new File(mirror.directory, "HEAD").exists();
+            if (exists) {
+                this.hits.increment();
+            } else {
+                this.misses.increment();
+                FileUtils.deleteDirectory(mirror.directory);
+                Git.init().setBare(true).setDirectory(mirror.directory).call().close();
+            }
+            try (Git git = Git.open(mirror.directory)) {
+                final FetchResult fetchResult =
+                        git.fetch()
+                                .setRemote(gitUrl.value())
+                                .setRefSpecs(REF_SPECS)
+                                .setRemoveDeletedRefs(true)
+                                .setProgressMonitor(progressMonitor)
+                                .call();
+                linkHead(git.getRepository(), fetchResult);
+            } catch (GitAPIException | IOException e) {
+                // do not keep a mirror in an unknown state
+                FileUtils.deleteDirectory(mirror.directory);
+                mirror.size = 0;
+                throw e;
+            }
+            mirror.lastFetchStartedAt = fetchStartedAt;
+            mirror.lastAccess = System.currentTimeMillis();
+            mirror.size = FileUtils.sizeOfDirectory(mirror.directory);
+        } finally {
+            mirror.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Points the HEAD of the mirror to the default branch of the remote, so that clones from the
+     * mirror check out the same branch as a clone from the remote would.
+     */
+    private static void linkHead(@Nonnull Repository repository, @Nonnull FetchResult fetchResult)
+            throws IOException {
+        final Ref remoteHead = fetchResult.getAdvertisedRef(Constants.HEAD);
+        if (remoteHead == null) {
+            return;
+        }
+        String target = null;
+        if (remoteHead.isSymbolic()) {
+            target = remoteHead.getTarget().getName();
+        } else if (remoteHead.getObjectId() != null) {
+            target =
+                    repository.getRefDatabase().getRefsByPrefix(Constants.R_HEADS).stream()
+                            .filter(ref -> remoteHead.getObjectId().equals(ref.getObjectId()))
+                            .map(Ref::getName)
+                            .min(
+                                    Comparator.comparing(
+                                            (String name) ->
+                                                    !name.equals(Constants.R_HEADS + "main")
+                                                            && !name.equals(
+                                                                    Constants.R_HEADS + "master")))
+                            .orElse(null);
+        }
+        if (target != null) {
+            repository.updateRef(Constants.HEAD).link(target);
+        }
+    }
+
+    private void evictIfNeeded(@Nonnull String currentKey) {
+        if (totalBytes() <= this.maxBytes) {
+            return;
+        }
+        final List<Map.Entry<String, Mirror>> candidates =
+                this.mirrors.entrySet().stream()
+                        .filter(entry -> !entry.getKey().equals(currentKey))
+                        .filter(entry -> entry.getValue().size > 0)
+                        .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                        .toList();
+        for (Map.Entry<String, Mirror> candidate : candidates) {
+            if (totalBytes() <= this.maxBytes) {
+                return;
+            }
+            final Mirror mirror = candidate.getValue();
+            // mirrors that are fetched or cloned right now are skipped
+            if (!mirror.lock.writeLock().tryLock()) {
+                continue;
+            }
+            try {
+                FileUtils.deleteDirectory(mirror.directory);
+                this.evictions.increment();
+                LOGGER.info("Evicted git mirror {}", mirror.directory.getName());
+            } catch (IOException e) {
+                LOGGER.warn("Could not evict git mirror {}", mirror.directory, e);
+            } finally {
+                mirror.size = 0;
+                mirror.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private long totalBytes() {
+        return this.mirrors.values().stream().mapToLong(mirror -> mirror.size).sum();
+    }
+
+    private void loadExistingMirrors() {
+        final File[] directories =
+                Optional.ofNullable(this.mirrorDir.listFiles(File::isDirectory))
+                        .orElse(new File[0]);
+        for (File directory : directories) {
+            final Mirror mirror = new Mirror(directory);
+            mirror.lastAccess = directory.lastModified();
+            mirror.size = FileUtils.sizeOfDirectory(directory);
+            this.mirrors.put(directory.getName(), mirror);
+        }
+        LOGGER.info("Loaded {} git mirrors from {}", directories.length, this.mirrorDir);
+    }
+
+    @Nonnull
+    private static String keyOf(@Nonnull GitUrl gitUrl) {
+        final String normalized = gitUrl.value().replaceAll("/+$", "");
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of()
+                    .formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Mirror {
+        @Nonnull private final File directory;
+        @Nonnull private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile long lastAccess;
+        private volatile long lastFetchStartedAt = System.nanoTime() - Long.MAX_VALUE / 2;
+        private volatile long size;
+
+        Mirror(@Nonnull File directory) {
+            this.directory = directory;
+        }
+    }
+}
@@ -32,19 +32,30 @@ import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.pqca.errors.ClientDisconnected;
 import org.pqca.progress.IProgressDispatcher;
 import org.pqca.progress.ProgressMessage;
@@ -54,18 +65,24 @@ public final class GitService {
     @Nullable private final IProgressDispatcher progressDispatcher;
     @Nonnull private final String baseCloneDirPath;
     @Nullable private final ICredentials credentials;
+    @Nullable private final GitMirrorCache mirrorCache;
+    private final boolean shallowClone;
 
     public GitService(@Nonnull String baseCloneDirPath, @Nullable ICredentials credentials) {
-        this(null, baseCloneDirPath, credentials);
+        this(null, baseCloneDirPath, credentials, null, false);
     }
 
     public GitService(
-            @Nonnull IProgressDispatcher progressDispatcher,
+            @Nullable IProgressDispatcher progressDispatcher,
             @Nonnull String baseCloneDirPath,
-            @Nullable ICredentials credentials) {
+            @Nullable ICredentials credentials,
+            @Nullable GitMirrorCache mirrorCache,
+            boolean shallowClone) {
         this.progressDispatcher = progressDispatcher;
         this.baseCloneDirPath = baseCloneDirPath;
         this.credentials = credentials;
+        this.mirrorCache = mirrorCache;
+        this.shallowClone = shallowClone;
     }
 
     @Nullable private static String extractVersion(String rev) {
@@ -84,24 +101,29 @@ public final class GitService {
             throws GitCloneFailed, ClientDisconnected {
         final File scanCloneFile = createDirectory();
         try {
-            final Git clonedRepo =
-                    Git.cloneRepository()
-                            .setProgressMonitor(getProgressMonitor())
-                            .setURI(gitUrl.value())
-                            // .setBranch(revision.value())
-                            .setDirectory(scanCloneFile)
-                            .setCredentialsProvider(getCredentialsProvider(credentials))
-                            .call();
+            if (this.shallowClone && !usesMirrorCache()) {
+                final Git shallowRepo = shallowClone(gitUrl, revision, commit, scanCloneFile);
+                if (commit == null) {
+                    final ObjectId head = shallowRepo.getRepository().resolve(Constants.HEAD);
+                    try (ObjectReader reader = shallowRepo.getRepository().newObjectReader()) {
+                        commit = new Commit(reader.abbreviate(head, 7).name());
+                    }
+                }
+                return new CloneResultDTO(commit, scanCloneFile);
+            }
+
+            final Git clonedRepo = cloneRepository(gitUrl, scanCloneFile);
 
             if (commit != null) {
-                final Ref ref =
-                        clonedRepo
-                                .checkout()
-                                .setName(revision.value())
-                                .setCreateBranch(false)
-                                .setStartPoint(commit.hash())
-                                .call();
-                if (ref == null) {
+                // stay on the branch if the commit is its tip, otherwise detach at the commit
+                final ObjectId revisionId = clonedRepo.getRepository().resolve(revision.value());
+                final String checkoutName =
+                        revisionId != null && revisionId.name().startsWith(commit.hash())
+                                ? revision.value()
+                                : commit.hash();
+                clonedRepo.checkout().setName(checkoutName).call();
+                final ObjectId head = clonedRepo.getRepository().resolve(Constants.HEAD);
+                if (head == null || !head.name().startsWith(commit.hash())) {
                     throw new GitCloneFailed(
                             "Commit "
                                     + commit.hash()
@@ -159,6 +181,190 @@ public final class GitService {
         }
     }
 
+    @Nonnull
+    private Git cloneRepository(@Nonnull GitUrl gitUrl, @Nonnull File scanCloneFile)
+            throws GitAPIException, IOException {
+        if (usesMirrorCache()) {
+            try {
+                return this.mirrorCache.cloneInto(gitUrl, scanCloneFile, getProgressMonitor());
+            } catch (GitAPIException | IOException e) {
+                LOGGER.warn("Git mirror of {} unavailable, cloning directly", gitUrl.value(), e);
+                FileUtils.cleanDirectory(scanCloneFile);
+            }
+        }
+        return Git.cloneRepository()
+                .setProgressMonitor(getProgressMonitor())
+                .setURI(gitUrl.value())
+                // .setBranch(revision.value())
+                .setDirectory(scanCloneFile)
+                .setCredentialsProvider(getCredentialsProvider(credentials))
+                .call();
+    }
+
+    private boolean usesMirrorCache() {
+        // repositories that require credentials are never shared through the mirror cache
+        return this.mirrorCache != null && this.mirrorCache.isEnabled() && this.credentials == null;
+    }
+
+    /**
+     * Resolves the commit of the revision from the refs advertised by the remote, without cloning
+     * the repository.
+     *
+     * @return the abbreviated commit hash, empty if the remote has no matching branch or tag
+     * @throws GitCloneFailed if the remote could not be reached
+     */
+    @Nonnull
+    public Optional<Commit> resolveCommit(@Nonnull GitUrl gitUrl, @Nonnull Revision revision)
+            throws GitCloneFailed {
+        try {
+            return Optional.ofNullable(resolveRemoteRef(gitUrl, revision))
+                    // the peeled id is the commit an annotated tag points to
+                    .map(
+                            ref ->
+                                    Optional.ofNullable(ref.getPeeledObjectId())
+                                            .orElse(ref.getObjectId()))
+                    .map(objectId -> new Commit(objectId.abbreviate(7).name()));
+        } catch (GitAPIException e) {
+            throw new GitCloneFailed("Could not list the refs of " + gitUrl.value(), e);
+        }
+    }
+
+    /**
+     * Lists the files that changed between two commits of a cloned repository.
+     *
+     * @return the changes, empty if one of the commits is not part of the clone (e.g. shallow)
+     */
+    @Nonnull
+    public Optional<ChangeSetDTO> diff(
+            @Nonnull File repositoryDirectory, @Nonnull Commit from, @Nonnull Commit to)
+            throws IOException {
+        try (Git git = Git.open(repositoryDirectory);
+                ObjectReader reader = git.getRepository().newObjectReader();
+                DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            final ObjectId fromTree = git.getRepository().resolve(from.hash() + "^{tree}");
+            final ObjectId toTree = git.getRepository().resolve(to.hash() + "^{tree}");
+            if (fromTree == null || toTree == null) {
+                return Optional.empty();
+            }
+            diffFormatter.setRepository(git.getRepository());
+            diffFormatter.setDetectRenames(true);
+
+            final Set<String> modifiedPaths = new HashSet<>();
+            final Set<String> deletedPaths = new HashSet<>();
+            for (DiffEntry entry :
+                    diffFormatter.scan(
+                            new CanonicalTreeParser(null, reader, fromTree),
+                            new CanonicalTreeParser(null, reader, toTree))) {
+                switch (entry.getChangeType()) {
+                    case ADD, MODIFY, COPY -> modifiedPaths.add(entry.getNewPath());
+                    case DELETE -> deletedPaths.add(entry.getOldPath());
+                    case RENAME -> {
+                        deletedPaths.add(entry.getOldPath());
+                        modifiedPaths.add(entry.getNewPath());
+                    }
+                }
+            }
+            return Optional.of(new ChangeSetDTO(modifiedPaths, deletedPaths));
+        } catch (MissingObjectException | IncorrectObjectTypeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Clones only the tip of the requested revision. If the pinned commit is not the tip, the
+     * history is fetched in a second step and the commit is checked out.
+     */
+    @Nonnull
+    private Git shallowClone(
+            @Nonnull GitUrl gitUrl,
+            @Nonnull Revision revision,
+            @Nullable Commit commit,
+            @Nonnull File scanCloneFile)
+            throws GitAPIException, GitCloneFailed, IOException {
+        final String remoteRef =
+                Optional.ofNullable(resolveRemoteRef(gitUrl, revision))
+                        .map(Ref::getName)
+                        .orElse(null);
+        if (remoteRef == null && commit == null) {
+            throw new GitCloneFailed("Revision not found: " + revision.value());
+        }
+
+        final CloneCommand cloneCommand =
+                Git.cloneRepository()
+                        .setProgressMonitor(getProgressMonitor())
+                        .setURI(gitUrl.value())
+                        .setDirectory(scanCloneFile)
+                        .setCredentialsProvider(getCredentialsProvider(credentials))
+                        .setDepth(1);
+        if (remoteRef != null) {
+            LOGGER.info("Found revision {}", remoteRef);
+            cloneCommand
+                    .setBranch(remoteRef)
+                    .setCloneAllBranches(false)
+                    .setBranchesToClone(List.of(remoteRef));
+        }
+        final Git clonedRepo = cloneCommand.call();
+
+        if (commit != null) {
+            final ObjectId head = clonedRepo.getRepository().resolve(Constants.HEAD);
+            if (head == null || !head.name().startsWith(commit.hash())) {
+                clonedRepo
+                        .fetch()
+                        .setProgressMonitor(getProgressMonitor())
+                        .setCredentialsProvider(getCredentialsProvider(credentials))
+                        .setUnshallow(true)
+                        .call();
+                clonedRepo.checkout().setName(commit.hash()).call();
+                final ObjectId checkedOut = clonedRepo.getRepository().resolve(Constants.HEAD);
+                if (checkedOut == null || !checkedOut.name().startsWith(commit.hash())) {
+                    throw new GitCloneFailed(
+                            "Commit "
+                                    + commit.hash()
+                                    + " not found for revision "
+                                    + revision.value());
+                }
+            }
+        }
+        return clonedRepo;
+    }
+
+    /**
+     * Resolves the revision against the refs advertised by the remote, using the same rules as
+     * for a full clone: an exact branch or tag name first, otherwise a tag ending with the
+     * version contained in the revision.
+     */
+    @Nullable private Ref resolveRemoteRef(@Nonnull GitUrl gitUrl, @Nonnull Revision revision)
+            throws GitAPIException {
+        final Collection<Ref> refs =
+                Git.lsRemoteRepository()
+                        .setRemote(gitUrl.value())
+                        .setCredentialsProvider(getCredentialsProvider(credentials))
+                        .setHeads(true)
+                        .setTags(true)
+                        .call();
+        for (String candidate :
+                List.of(
+                        revision.value(),
+                        Constants.R_HEADS + revision.value(),
+                        Constants.R_TAGS + revision.value())) {
+            final Optional<Ref> match =
+                    refs.stream().filter(r -> r.getName().equals(candidate)).findFirst();
+            if (match.isPresent()) {
+                return match.get();
+            }
+        }
+        final String version = extractVersion(revision.value());
+        if (version == null) {
+            return null;
+        }
+        final String alternative = version.replaceAll("\\.", "_");
+        return refs.stream()
+                .filter(r -> r.getName().startsWith(Constants.R_TAGS))
+                .filter(r -> r.getName().endsWith(version) || r.getName().endsWith(alternative))
+                .findFirst()
+                .orElse(null);
+    }
+
     @Nonnull
     private File createDirectory() throws GitCloneFailed {
         // create directory
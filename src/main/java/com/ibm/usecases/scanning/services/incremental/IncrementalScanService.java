@@ -0,0 +1,196 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.scanning.services.incremental;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.usecases.scanning.services.git.ChangeSetDTO;
+import jakarta.annotation.Nonnull;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.pqca.errors.CBOMSerializationFailed;
+import org.pqca.indexing.ProjectModule;
+import org.pqca.scanning.CBOM;
+
+/**
+ * Supports rescanning only the modules affected by the changes since a previous scan. The CBOM of
+ * the previous scan is cleaned from all findings in the rescanned and deleted files, so that the
+ * result of the rescan can be merged into it.
+ */
+public final class IncrementalScanService {
+    private static final String COMPONENTS = "components";
+    private static final String DEPENDENCIES = "dependencies";
+
+    @Nonnull private final Path projectDirectory;
+
+    public IncrementalScanService(@Nonnull File projectDirectory) {
+        this.projectDirectory = projectDirectory.toPath().toAbsolutePath().normalize();
+    }
+
+    /** Returns the modules that contain at least one added or modified file. */
+    @Nonnull
+    public List<ProjectModule> affectedModules(
+            @Nonnull List<ProjectModule> modules, @Nonnull ChangeSetDTO changeSet) {
+        return modules.stream()
+                .filter(
+                        module ->
+                                filesOf(module).stream()
+                                        .anyMatch(changeSet.modifiedPaths()::contains))
+                .toList();
+    }
+
+    /**
+     * Returns the paths whose findings in the previous CBOM are outdated: all files of the
+     * rescanned modules and the deleted files.
+     */
+    @Nonnull
+    public Set<String> stalePaths(
+            @Nonnull List<ProjectModule> rescannedModules, @Nonnull ChangeSetDTO changeSet) {
+        final Set<String> paths = new HashSet<>(changeSet.deletedPaths());
+        paths.addAll(changeSet.modifiedPaths());
+        rescannedModules.forEach(module -> paths.addAll(filesOf(module)));
+        return paths;
+    }
+
+    /**
+     * Removes the occurrences located in the stale paths from the previous CBOM. Components
+     * without remaining occurrences are dropped together with the components that were only
+     * reachable through them, the scan metadata is removed as it belongs to the previous commit.
+     */
+    @Nonnull
+    public CBOM prune(@Nonnull CBOM previous, @Nonnull Set<String> stalePaths)
+            throws CBOMSerializationFailed {
+        final ObjectNode bom = previous.toJSON().deepCopy();
+        if (bom.get("metadata") instanceof ObjectNode metadata) {
+            metadata.remove("properties");
+        }
+
+        final Set<String> removedRefs = new HashSet<>();
+        if (bom.get(COMPONENTS) instanceof ArrayNode components) {
+            final Iterator<JsonNode> iterator = components.elements();
+            while (iterator.hasNext()) {
+                final JsonNode component = iterator.next();
+                final JsonNode occurrences = component.path("evidence").path("occurrences");
+                if (!(occurrences instanceof ArrayNode occurrenceArray)
+                        || occurrenceArray.isEmpty()) {
+                    continue;
+                }
+                final Iterator<JsonNode> occurrenceIterator = occurrenceArray.elements();
+                while (occurrenceIterator.hasNext()) {
+                    if (stalePaths.contains(occurrenceIterator.next().path("location").asText())) {
+                        occurrenceIterator.remove();
+                    }
+                }
+                if (occurrenceArray.isEmpty()) {
+                    removedRefs.add(component.path("bom-ref").asText());
+                    iterator.remove();
+                }
+            }
+            removeOrphans(bom, components, removedRefs);
+        }
+        return CBOM.formJSON(bom);
+    }
+
+    /**
+     * Removes the dependencies of removed components and, transitively, the components without
+     * own occurrences that are no longer referenced.
+     */
+    private void removeOrphans(
+            @Nonnull ObjectNode bom,
+            @Nonnull ArrayNode components,
+            @Nonnull Set<String> removedRefs) {
+        if (!(bom.get(DEPENDENCIES) instanceof ArrayNode dependencies)) {
+            return;
+        }
+        Set<String> candidates = removeDependencies(dependencies, removedRefs);
+        while (!candidates.isEmpty()) {
+            final Set<String> referenced = new HashSet<>();
+            dependencies.forEach(
+                    dependency ->
+                            dependency
+                                    .path("dependsOn")
+                                    .forEach(target -> referenced.add(target.asText())));
+            final Set<String> orphans = new HashSet<>();
+            final Iterator<JsonNode> iterator = components.elements();
+            while (iterator.hasNext()) {
+                final JsonNode component = iterator.next();
+                final String ref = component.path("bom-ref").asText();
+                if (candidates.contains(ref)
+                        && !referenced.contains(ref)
+                        && component.path("evidence").path("occurrences").isEmpty()) {
+                    orphans.add(ref);
+                    iterator.remove();
+                }
+            }
+            removedRefs.addAll(orphans);
+            candidates = removeDependencies(dependencies, orphans);
+        }
+    }
+
+    /**
+     * Removes the dependency entries of the given components and the references to them.
+     *
+     * @return the components the removed entries depended on
+     */
+    @Nonnull
+    private Set<String> removeDependencies(
+            @Nonnull ArrayNode dependencies, @Nonnull Set<String> removedRefs) {
+        final Set<String> dependedOn = new HashSet<>();
+        final Iterator<JsonNode> iterator = dependencies.elements();
+        while (iterator.hasNext()) {
+            final JsonNode dependency = iterator.next();
+            if (removedRefs.contains(dependency.path("ref").asText())) {
+                dependency.path("dependsOn").forEach(target -> dependedOn.add(target.asText()));
+                iterator.remove();
+            } else if (dependency.get("dependsOn") instanceof ArrayNode dependsOn) {
+                final Iterator<JsonNode> targets = dependsOn.elements();
+                while (targets.hasNext()) {
+                    if (removedRefs.contains(targets.next().asText())) {
+                        targets.remove();
+                    }
+                }
+            }
+        }
+        dependedOn.removeAll(removedRefs);
+        return dependedOn;
+    }
+
+    @Nonnull
+    private Set<String> filesOf(@Nonnull ProjectModule module) {
+        final Set<String> files = new HashSet<>();
+        module.inputFileList()
+                .forEach(
+                        inputFile ->
+                                files.add(
+                                        this.projectDirectory
+                                                .relativize(
+                                                        Path.of(inputFile.uri())
+                                                                .toAbsolutePath()
+                                                                .normalize())
+                                                .toString()
+                                                .replace(File.separatorChar, '/')));
+        return files;
+    }
+}
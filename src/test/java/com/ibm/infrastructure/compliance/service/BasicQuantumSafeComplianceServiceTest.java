@@ -0,0 +1,77 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.compliance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.domain.compliance.CryptographicAsset;
+import com.ibm.domain.compliance.PolicyIdentifier;
+import io.quarkus.test.junit.QuarkusTest;
+import java.util.List;
+import org.cyclonedx.model.Component;
+import org.cyclonedx.model.component.crypto.AlgorithmProperties;
+import org.cyclonedx.model.component.crypto.CryptoProperties;
+import org.cyclonedx.model.component.crypto.enums.Primitive;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class BasicQuantumSafeComplianceServiceTest {
+    private final BasicQuantumSafeComplianceService complianceService =
+            new BasicQuantumSafeComplianceService();
+
+    @Test
+    @DisplayName("Test the first whitelisted name contained in a name is matched")
+    void testNameMatching() {
+        final QuantumSafeWhitelist whitelist = QuantumSafeWhitelist.load(null);
+        assertThat(whitelist.matchName("ML-KEM-768")).isEqualTo("ml-kem");
+        assertThat(whitelist.matchName("CRYSTALS-Kyber")).isEqualTo("kyber");
+        assertThat(whitelist.matchName("hss-lms")).isEqualTo("lms");
+        assertThat(whitelist.matchName("RSA-2048")).isNull();
+        assertThat(whitelist.containsOid("1.3.9999.6.4.16")).isTrue();
+        assertThat(whitelist.containsOid("1.2.840.113549.1.1.1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Test asymmetric assets are evaluated by name")
+    void testEvaluate() {
+        final ComplianceCheckResultDTO result =
+                complianceService.evaluate(
+                        new PolicyIdentifier("quantum_safe"),
+                        List.of(asset("a", "ML-DSA-65"), asset("b", "RSA-2048")));
+        assertThat(result.error()).isFalse();
+        assertThat(result.policyResults())
+                .extracting(policyResult -> policyResult.complianceLevel().id())
+                .containsExactly(3, 1);
+        assertThat(result.policyResults().getFirst().message()).contains("'ml-dsa'");
+    }
+
+    private static CryptographicAsset asset(String bomRef, String name) {
+        final AlgorithmProperties algorithmProperties = new AlgorithmProperties();
+        algorithmProperties.setPrimitive(Primitive.SIGNATURE);
+        final CryptoProperties cryptoProperties = new CryptoProperties();
+        cryptoProperties.setAlgorithmProperties(algorithmProperties);
+        final Component component = new Component();
+        component.setBomRef(bomRef);
+        component.setName(name);
+        component.setCryptoProperties(cryptoProperties);
+        return new CryptographicAsset(bomRef, component);
+    }
+}
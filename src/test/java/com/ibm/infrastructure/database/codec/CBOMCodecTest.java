@@ -0,0 +1,69 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.database.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+@QuarkusTest
+class CBOMCodecTest {
+    private static final String CBOM =
+            "{\"bomFormat\":\"CycloneDX\",\"specVersion\":\"1.6\",\"version\":1,\"components\":["
+                    + "{\"type\":\"cryptographic-asset\",\"bom-ref\":\"1\",\"name\":\"AES\","
+                    + "\"cryptoProperties\":{\"assetType\":\"algorithm\"}},"
+                    + "{\"type\":\"cryptographic-asset\",\"bom-ref\":\"2\",\"name\":\"RSA\","
+                    + "\"cryptoProperties\":{\"assetType\":\"algorithm\"}}]}";
+
+    @ParameterizedTest
+    @EnumSource(CBOMCodec.class)
+    @DisplayName("Test that an encoded CBOM is decoded to the same tree and JSON text")
+    void testRoundTrip(CBOMCodec codec) throws Exception {
+        final JsonNode cbom = new ObjectMapper().readTree(CBOM);
+        final byte[] data = codec.encode(cbom);
+
+        assertThat(codec.decode(data)).isEqualTo(cbom);
+        assertThat(CBOMCodec.read(null, data, codec.getId())).isEqualTo(cbom);
+        assertThat(CBOMCodec.readString(data, codec.getId())).isEqualTo(CBOM);
+    }
+
+    @Test
+    @DisplayName("Test that the deflate codec compresses a CBOM")
+    void testDeflateCompresses() throws Exception {
+        final JsonNode cbom = new ObjectMapper().readTree(CBOM);
+        assertThat(CBOMCodec.DEFLATE.encode(cbom).length).isLessThan(CBOM.length());
+    }
+
+    @Test
+    @DisplayName("Test that codecs are found by their identifier")
+    void testOf() {
+        assertThat(CBOMCodec.of(null)).isEqualTo(CBOMCodec.JSON);
+        assertThat(CBOMCodec.of("smile")).isEqualTo(CBOMCodec.SMILE);
+        assertThat(CBOMCodec.of("DEFLATE")).isEqualTo(CBOMCodec.DEFLATE);
+        assertThatThrownBy(() -> CBOMCodec.of("zstd")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.domain.scanning.ScanId;
+import com.ibm.infrastructure.IDispatchConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.pqca.progress.ProgressMessage;
+import org.pqca.progress.ProgressMessageType;
+
+@QuarkusTest
+class ProgressJournalTest {
+
+    @Test
+    @DisplayName("Test that a subscriber receives the messages from the given sequence number on")
+    void testReplayFromSequence() {
+        final ProgressJournal progressJournal = progressJournal(100, 10);
+        final ScanId scanId = new ScanId();
+        progressJournal.open(scanId);
+        progressJournal.append(scanId, label("Cloning"));
+        progressJournal.append(scanId, detection("AES"));
+        progressJournal.append(scanId, detection("RSA"));
+
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        assertThat(progressJournal.subscribe(scanId, 1, subscriber)).isPresent();
+        progressJournal.append(scanId, label("Finished"));
+
+        assertThat(subscriber.sequences()).containsExactly(1L, 2L, 3L);
+        assertThat(subscriber.messages()).containsExactly("AES", "RSA", "Finished");
+        assertThat(subscriber.completed).isFalse();
+    }
+
+    @Test
+    @DisplayName("Test that subscribers are notified when the progress of a scan is complete")
+    void testCompletionNotifiesSubscribers() {
+        final ProgressJournal progressJournal = progressJournal(100, 10);
+        final ScanId scanId = new ScanId();
+        progressJournal.open(scanId);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        progressJournal.subscribe(scanId, 0, subscriber);
+        progressJournal.append(scanId, label("Finished"));
+
+        progressJournal.complete(scanId);
+        progressJournal.append(scanId, label("Ignored"));
+
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.messages()).containsExactly("Finished");
+
+        // late subscribers receive the replay and the completion right away
+        final RecordingSubscriber lateSubscriber = new RecordingSubscriber();
+        progressJournal.subscribe(scanId, 0, lateSubscriber);
+        assertThat(lateSubscriber.messages()).containsExactly("Finished");
+        assertThat(lateSubscriber.completed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Test that completed scans are evicted before the oldest running scan")
+    void testEviction() {
+        final ProgressJournal progressJournal = progressJournal(100, 2);
+        final ScanId first = new ScanId();
+        final ScanId second = new ScanId();
+        progressJournal.open(first);
+        progressJournal.open(second);
+        progressJournal.complete(second);
+
+        progressJournal.open(new ScanId());
+        assertThat(progressJournal.subscribe(first, 0, new RecordingSubscriber())).isPresent();
+        assertThat(progressJournal.subscribe(second, 0, new RecordingSubscriber())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test that subscribers of an evicted running scan are completed")
+    void testEvictionOfRunningScan() {
+        final ProgressJournal progressJournal = progressJournal(100, 2);
+        final ScanId first = new ScanId();
+        final ScanId second = new ScanId();
+        progressJournal.open(first);
+        progressJournal.open(second);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        progressJournal.subscribe(first, 0, subscriber);
+
+        progressJournal.open(new ScanId());
+
+        assertThat(subscriber.completed).isTrue();
+        assertThat(progressJournal.subscribe(first, 0, new RecordingSubscriber())).isEmpty();
+        assertThat(progressJournal.subscribe(second, 0, new RecordingSubscriber())).isPresent();
+        assertThat(progressJournal.append(first, label("Lost"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test that a full journal drops labels before results and errors")
+    void testTrimDropsLabelsFirst() {
+        final ProgressJournal progressJournal = progressJournal(3, 10);
+        final ScanId scanId = new ScanId();
+        progressJournal.open(scanId);
+        progressJournal.append(scanId, detection("AES"));
+        progressJournal.append(scanId, label("Scanning"));
+        progressJournal.append(scanId, detection("RSA"));
+        progressJournal.append(scanId, new ProgressMessage(ProgressMessageType.ERROR, "Failed"));
+
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        progressJournal.subscribe(scanId, 0, subscriber);
+        assertThat(subscriber.messages()).containsExactly("AES", "RSA", "Failed");
+        assertThat(subscriber.sequences()).containsExactly(0L, 2L, 3L);
+    }
+
+    @Nonnull
+    private static ProgressJournal progressJournal(int maxEntries, int maxScans) {
+        return new ProgressJournal(
+                new TestConfiguration(maxEntries, maxScans), new SimpleMeterRegistry());
+    }
+
+    @Nonnull
+    private static ProgressMessage label(@Nonnull String message) {
+        return new ProgressMessage(ProgressMessageType.LABEL, message);
+    }
+
+    @Nonnull
+    private static ProgressMessage detection(@Nonnull String message) {
+        return new ProgressMessage(ProgressMessageType.DETECTION, message);
+    }
+
+    private static final class RecordingSubscriber implements IProgressSubscriber {
+        @Nonnull private final List<ProgressEntry> entries = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void onEntry(@Nonnull ProgressEntry entry) {
+            this.entries.add(entry);
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+
+        @Nonnull
+        List<Long> sequences() {
+            return this.entries.stream().map(ProgressEntry::sequence).toList();
+        }
+
+        @Nonnull
+        List<String> messages() {
+            return this.entries.stream().map(entry -> entry.message().message()).toList();
+        }
+    }
+
+    private record TestConfiguration(int maxEntries, int maxScans)
+            implements IDispatchConfiguration {
+
+        @Override
+        public int getCommandBusMaxConcurrency() {
+            return 1;
+        }
+
+        @Override
+        public int getCommandBusQueueCapacity() {
+            return 1;
+        }
+
+        @Override
+        public boolean isDomainEventBusAsync() {
+            return false;
+        }
+
+        @Nonnull
+        @Override
+        public Duration getQueryTimeout(@Nonnull Class<?> queryType) {
+            return Duration.ofSeconds(1);
+        }
+
+        @Override
+        public int getProgressJournalMaxEntries() {
+            return this.maxEntries;
+        }
+
+        @Override
+        public int getProgressJournalMaxScans() {
+            return this.maxScans;
+        }
+
+        @Nonnull
+        @Override
+        public Duration getProgressJournalRetention() {
+            return Duration.ofMinutes(1);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.infrastructure.progress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.annotation.Nonnull;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.Session;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.pqca.progress.ProgressMessage;
+import org.pqca.progress.ProgressMessageType;
+
+@QuarkusTest
+class WebSocketProgressDispatcherTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    @DisplayName("Test that labels are dropped before results and errors if the client is slow")
+    void testBufferDropsLabelsFirst() throws Exception {
+        final CountDownLatch released = new CountDownLatch(1);
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final WebSocketProgressDispatcher dispatcher =
+                new WebSocketProgressDispatcher(session(sent, released));
+
+        // alternating, so that the labels are not coalesced, and more than the buffer can hold
+        final int detections = 300;
+        for (int i = 0; i < detections; i++) {
+            dispatcher.send(new ProgressMessage(ProgressMessageType.LABEL, "Label " + i));
+            dispatcher.send(new ProgressMessage(ProgressMessageType.DETECTION, "Detection " + i));
+        }
+        dispatcher.send(new ProgressMessage(ProgressMessageType.ERROR, "Failed"));
+        released.countDown();
+        final List<JsonNode> messages = awaitMessage(sent, "Failed");
+
+        assertThat(messagesOf(messages, ProgressMessageType.DETECTION))
+                .hasSize(detections)
+                .startsWith("Detection 0", "Detection 1")
+                .endsWith("Detection " + (detections - 1));
+        assertThat(messagesOf(messages, ProgressMessageType.ERROR)).containsExactly("Failed");
+        assertThat(messagesOf(messages, ProgressMessageType.LABEL)).hasSizeLessThan(detections);
+    }
+
+    @Test
+    @DisplayName("Test that consecutive labels are coalesced while the client is busy")
+    void testLabelsAreCoalesced() throws Exception {
+        final CountDownLatch released = new CountDownLatch(1);
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final WebSocketProgressDispatcher dispatcher =
+                new WebSocketProgressDispatcher(session(sent, released));
+
+        dispatcher.send(new ProgressMessage(ProgressMessageType.LABEL, "Cloning"));
+        dispatcher.send(new ProgressMessage(ProgressMessageType.LABEL, "Indexing"));
+        dispatcher.send(new ProgressMessage(ProgressMessageType.LABEL, "Scanning"));
+        dispatcher.send(new ProgressMessage(ProgressMessageType.LABEL, "Finished"));
+        released.countDown();
+        final List<JsonNode> messages = awaitMessage(sent, "Finished");
+
+        // only the label being written when the client got busy and the last one are sent
+        assertThat(messagesOf(messages, ProgressMessageType.LABEL))
+                .doesNotContain("Indexing", "Scanning")
+                .endsWith("Finished");
+    }
+
+    @Test
+    @DisplayName("Test that journaled messages carry their sequence number")
+    void testSequenceNumber() throws Exception {
+        final CountDownLatch released = new CountDownLatch(0);
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final WebSocketProgressDispatcher dispatcher =
+                new WebSocketProgressDispatcher(session(sent, released));
+
+        dispatcher.send(
+                new ProgressEntry(
+                        42, new ProgressMessage(ProgressMessageType.DETECTION, "Detection")));
+        final List<JsonNode> messages = awaitMessage(sent, "Detection");
+
+        assertThat(messages.get(0).path("sequence").asLong()).isEqualTo(42);
+    }
+
+    /**
+     * Returns a session that records the sent messages. Sending blocks until the given latch is
+     * released, which makes the dispatcher buffer all further messages.
+     */
+    @Nonnull
+    private static Session session(@Nonnull List<String> sent, @Nonnull CountDownLatch released) {
+        final RemoteEndpoint.Basic remote =
+                (RemoteEndpoint.Basic)
+                        Proxy.newProxyInstance(
+                                RemoteEndpoint.Basic.class.getClassLoader(),
+                                new Class<?>[] {RemoteEndpoint.Basic.class},
+                                (proxy, method, args) -> {
+                                    if (method.getName().equals("sendText")) {
+                                        released.await();
+                                        sent.add((String) args[0]);
+                                    }
+                                    return null;
+                                });
+        return (Session)
+                Proxy.newProxyInstance(
+                        Session.class.getClassLoader(),
+                        new Class<?>[] {Session.class},
+                        (proxy, method, args) ->
+                                switch (method.getName()) {
+                                    case "getBasicRemote" -> remote;
+                                    case "isOpen" -> true;
+                                    case "getId" -> "test";
+                                    default -> null;
+                                });
+    }
+
+    /** Waits until the message with the given content has been sent. */
+    @Nonnull
+    private static List<JsonNode> awaitMessage(@Nonnull List<String> sent, @Nonnull String message)
+            throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final List<JsonNode> messages =
+                    OBJECT_MAPPER
+                            .readerForListOf(JsonNode.class)
+                            .readValue("[" + String.join(",", sent) + "]");
+            if (messages.stream()
+                    .anyMatch(node -> message.equals(node.path("message").asText()))) {
+                return messages;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Message " + message + " was not sent");
+    }
+
+    @Nonnull
+    private static List<String> messagesOf(
+            @Nonnull List<JsonNode> messages, @Nonnull ProgressMessageType type) {
+        return messages.stream()
+                .filter(node -> type.name().equals(node.path("type").asText()))
+                .map(node -> node.path("message").asText())
+                .toList();
+    }
+}
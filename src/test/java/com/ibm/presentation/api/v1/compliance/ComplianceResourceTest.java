@@ -0,0 +1,61 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.presentation.api.v1.compliance;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.nullValue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class ComplianceResourceTest {
+
+    @Test
+    @DisplayName("Test that a batch compliance check without a policy returns 400")
+    void testCheckStoredBatchWithoutPolicy() {
+        given().when()
+                .header("Content-type", "application/json")
+                .body("{\"projectIdentifiers\": [\"pkg:test/unknown\"]}")
+                .post("/api/v1/compliance/check/batch")
+                .then()
+                .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Test that a batch compliance check reports projects without CBOM")
+    void testCheckStoredBatchUnknownProject() {
+        given().when()
+                .header("Content-type", "application/json")
+                .body(
+                        "{\"policyIdentifier\": \"quantum_safe\","
+                                + " \"projectIdentifiers\": [\"pkg:test/unknown\"]}")
+                .post("/api/v1/compliance/check/batch")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .contentType(containsString("application/x-ndjson"))
+                .header("Content-Encoding", nullValue())
+                .body(containsString("\"projectIdentifier\":\"pkg:test/unknown\""))
+                .body(containsString("\"error\""));
+    }
+}
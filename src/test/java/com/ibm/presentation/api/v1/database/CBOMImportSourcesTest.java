@@ -0,0 +1,89 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.presentation.api.v1.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.usecases.database.service.CBOMImportItem;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class CBOMImportSourcesTest {
+
+    @Test
+    @DisplayName("Test that files of a zip archive larger than the limit are reported as errors")
+    void testZipFileLimit() throws IOException {
+        final byte[] zip =
+                zip("small.json", "{}", "large.json", "{\"padding\": \"" + "x".repeat(64) + "\"}");
+
+        final List<CBOMImportItem> items = read(zip, 32, 1024);
+
+        assertThat(items).hasSize(2);
+        assertThat(items.get(0).projectIdentifier()).isEqualTo("small");
+        assertThat(items.get(0).content()).isEqualTo("{}");
+        assertThat(items.get(1).projectIdentifier()).isEqualTo("large");
+        assertThat(items.get(1).content()).isNull();
+        assertThat(items.get(1).error()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Test that the files after the archive limit are not read")
+    void testZipArchiveLimit() throws IOException {
+        final byte[] zip =
+                zip("a.json", "x".repeat(40), "b.json", "x".repeat(40), "c.json", "x".repeat(40));
+
+        final List<CBOMImportItem> items = read(zip, 64, 100);
+
+        assertThat(items).hasSize(3);
+        assertThat(items.get(0).content()).isNotNull();
+        assertThat(items.get(1).content()).isNotNull();
+        assertThat(items.get(2).source()).isEqualTo("c.json");
+        assertThat(items.get(2).error()).isNotNull();
+    }
+
+    private static List<CBOMImportItem> read(byte[] zip, long maxFileBytes, long maxArchiveBytes) {
+        final List<CBOMImportItem> items = new ArrayList<>();
+        CBOMImportSources.fromZip(new ByteArrayInputStream(zip), maxFileBytes, maxArchiveBytes)
+                .forEachRemaining(items::add);
+        return items;
+    }
+
+    private static byte[] zip(String... namesAndContents) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zipOutputStream.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zipOutputStream.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -20,8 +20,11 @@
 package com.ibm.presentation.api.v1.database;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.transaction.Transactional;
@@ -47,12 +50,15 @@ class CBOMResourceTest {
     @DisplayName("Test that a CBOM can be stored, retrieved and deleted")
     void testCBOMStoreGetDelete() {
         String testIdentifier = "pkg:test/empty";
+        String serialNumber = "urn:uuid:00000000-0000-0000-0000-000000000001";
 
         String cbomString =
                 "{"
                         + " \"bomFormat\": \"CycloneDX\","
                         + " \"specVersion\": \"1.6\","
-                        + " \"serialNumber\": \"1\","
+                        + " \"serialNumber\": \""
+                        + serialNumber
+                        + "\","
                         + " \"version\": 1 }";
         given().pathParam("projectIdentifier", testIdentifier)
                 .when()
@@ -70,7 +76,117 @@ class CBOMResourceTest {
                 .statusCode(Response.Status.OK.getStatusCode())
                 .body(
                         "projectIdentifier", equalTo(testIdentifier),
-                        "bom.serialNumber", equalTo("1"));
+                        "bom.serialNumber", equalTo(serialNumber));
+
+        given().pathParam("projectIdentifier", testIdentifier)
+                .when()
+                .delete("/api/v1/cbom/{projectIdentifier}")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Test that storing a malformed or schema violating CBOM returns 400")
+    void testStoreInvalidCBOM() {
+        given().pathParam("projectIdentifier", "pkg:test/invalid")
+                .when()
+                .header("Content-type", "application/json")
+                .body("\"not a cbom\"")
+                .when()
+                .post("/api/v1/cbom/{projectIdentifier}")
+                .then()
+                .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+
+        given().pathParam("projectIdentifier", "pkg:test/invalid")
+                .when()
+                .header("Content-type", "application/json")
+                .body(
+                        "{ \"bomFormat\": \"CycloneDX\", \"specVersion\": \"1.6\","
+                                + " \"serialNumber\": \"1\", \"version\": 1 }")
+                .when()
+                .post("/api/v1/cbom/{projectIdentifier}")
+                .then()
+                .statusCode(Response.Status.BAD_REQUEST.getStatusCode())
+                .body(containsString("serialNumber"));
+    }
+
+    @Test
+    @DisplayName("Test that /api/v1/cbom/import stores valid CBOMs and reports invalid lines")
+    void testImportCBOMs() {
+        String testIdentifier = "pkg:test/import";
+        String serialNumber = "urn:uuid:00000000-0000-0000-0000-000000000002";
+
+        String ndjson =
+                "{\"projectIdentifier\": \""
+                        + testIdentifier
+                        + "\", \"cbom\": {"
+                        + " \"bomFormat\": \"CycloneDX\","
+                        + " \"specVersion\": \"1.6\","
+                        + " \"serialNumber\": \""
+                        + serialNumber
+                        + "\","
+                        + " \"version\": 1 }}\n"
+                        + "\n"
+                        + "not json\n";
+        given().when()
+                .header("Content-type", "application/x-ndjson")
+                .body(ndjson)
+                .post("/api/v1/cbom/import")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .contentType(containsString("application/x-ndjson"))
+                .header("Content-Encoding", nullValue())
+                .body(
+                        allOf(
+                                containsString("\"source\":\"line 1\""),
+                                containsString("\"id\":"),
+                                containsString("\"source\":\"line 3\""),
+                                containsString("\"error\":")));
+
+        given().pathParam("projectIdentifier", testIdentifier)
+                .when()
+                .get("/api/v1/cbom/{projectIdentifier}")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .body("bom.serialNumber", equalTo(serialNumber));
+
+        given().pathParam("projectIdentifier", testIdentifier)
+                .when()
+                .delete("/api/v1/cbom/{projectIdentifier}")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Test that /api/v1/cbom/import keeps the last CBOM of a repeated project")
+    void testImportKeepsLastOccurrence() {
+        String testIdentifier = "pkg:test/import-duplicates";
+
+        StringBuilder ndjson = new StringBuilder();
+        String serialNumberFormat = "urn:uuid:00000000-0000-0000-0000-%012d";
+        for (int i = 1; i <= 20; i++) {
+            ndjson.append("{\"projectIdentifier\": \"")
+                    .append(testIdentifier)
+                    .append("\", \"cbom\": {")
+                    .append(" \"bomFormat\": \"CycloneDX\",")
+                    .append(" \"specVersion\": \"1.6\",")
+                    .append(" \"serialNumber\": \"")
+                    .append(String.format(serialNumberFormat, i))
+                    .append("\", \"version\": 1 }}\n");
+        }
+        given().when()
+                .header("Content-type", "application/x-ndjson")
+                .body(ndjson.toString())
+                .post("/api/v1/cbom/import")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode());
+
+        given().pathParam("projectIdentifier", testIdentifier)
+                .when()
+                .get("/api/v1/cbom/{projectIdentifier}")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .body("bom.serialNumber", equalTo(String.format(serialNumberFormat, 20)));
 
         given().pathParam("projectIdentifier", testIdentifier)
                 .when()
@@ -99,4 +215,22 @@ class CBOMResourceTest {
                 .statusCode(Response.Status.OK.getStatusCode())
                 .body("size()", lessThanOrEqualTo(limit));
     }
+
+    @Test
+    @DisplayName("Test that /api/v1/cbom/summary endpoint returns a page of summaries")
+    void testGetCBOMSummaries() {
+        final int limit = 5;
+        given().queryParam("limit", limit)
+                .when()
+                .get("/api/v1/cbom/summary")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .body("summaries.size()", lessThanOrEqualTo(limit));
+
+        given().queryParam("cursor", "invalid")
+                .when()
+                .get("/api/v1/cbom/summary")
+                .then()
+                .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
 }
@@ -20,16 +20,23 @@
 package com.ibm.presentation.api.v1.scanning;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.ibm.infrastructure.database.readmodels.ICBOMReadRepository;
 import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.core.Response;
+import java.util.UUID;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 public class ScanningResourceTest {
 
+    @Inject ICBOMReadRepository cbomReadRepository;
+
     @Transactional
     @Test
     @DisplayName("Test that scan can be started")
@@ -42,11 +49,47 @@ public class ScanningResourceTest {
                 .when()
                 .post("/api/v1/scan")
                 .then()
-                .statusCode(Response.Status.ACCEPTED.getStatusCode());
+                .statusCode(Response.Status.ACCEPTED.getStatusCode())
+                .body("scanId", notNullValue());
 
         // The scan endpoint just submits a scan request. The scan
         // may not have completed when the test terminates.
         // Avoid some ugly warnings.
         Thread.sleep(10000);
     }
+
+    @Test
+    @DisplayName("Test that a finished scan is projected into a stored CBOM")
+    void testScanIsProjected() throws InterruptedException {
+        String projectIdentifier = "pkg:github/mastercard/client-encryption-java@1b27c1d";
+        ScanRequest scanRequest = new ScanRequest(projectIdentifier, null, null, null);
+        String scanId =
+                given().when()
+                        .header("Content-type", "application/json")
+                        .body(scanRequest)
+                        .when()
+                        .post("/api/v1/scan")
+                        .then()
+                        .statusCode(Response.Status.ACCEPTED.getStatusCode())
+                        .extract()
+                        .path("scanId");
+
+        // the read model shares the id of the scan
+        final UUID id = UUID.fromString(scanId);
+        boolean projected = false;
+        for (int i = 0; i < 120 && !projected; i++) {
+            Thread.sleep(1000);
+            projected = cbomReadRepository.read(id).isPresent();
+        }
+        assertTrue(projected);
+    }
+
+    @Test
+    @DisplayName("Test that the progress of an unknown scan is not found")
+    void testProgressOfUnknownScan() {
+        given().when()
+                .get("/api/v1/scan/" + UUID.randomUUID() + "/progress")
+                .then()
+                .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
 }
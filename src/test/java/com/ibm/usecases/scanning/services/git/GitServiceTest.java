@@ -63,6 +63,28 @@ public class GitServiceTest {
                 .doesNotThrowAnyException();
     }
 
+    @Test
+    @DisplayName("Test of shallow git clone of a commit that is not the branch tip")
+    void testShallowGitClone() {
+        GitUrl gitUrl = new GitUrl("https://github.com/mastercard/client-encryption-java");
+        Commit commit = new Commit("1b27c1d");
+
+        assertThatCode(
+                        () -> {
+                            GitService gitService =
+                                    new GitService(
+                                            null, config.getBaseCloneDirPath(), null, null, true);
+                            CloneResultDTO git =
+                                    gitService.clone(gitUrl, ScanAggregate.REVISION_MAIN, commit);
+                            assertThat(git).isNotNull();
+                            assertThat(git.commit()).isEqualTo(commit);
+
+                            // cleanup
+                            FileUtils.deleteDirectory(git.directory());
+                        })
+                .doesNotThrowAnyException();
+    }
+
     @Test
     @DisplayName("Test of git clone fail")
     void testGitCloneFail() {
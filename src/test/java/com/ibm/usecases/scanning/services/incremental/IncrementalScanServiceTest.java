@@ -0,0 +1,202 @@
+/*
+ * CBOMkit
+ * Copyright (C) 2024 PQCA
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.usecases.scanning.services.incremental;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.usecases.scanning.services.git.ChangeSetDTO;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.pqca.scanning.CBOM;
+
+@QuarkusTest
+class IncrementalScanServiceTest {
+    /*
+     * aes is found in a modified and an unchanged file, rsa only in the modified file and sha only
+     * in the deleted file. rsa depends on key, which depends on secret, both without own
+     * occurrences. aes and rsa depend on mode, which has no own occurrences either.
+     */
+    private static final String PREVIOUS_CBOM =
+            "{\"bomFormat\":\"CycloneDX\",\"specVersion\":\"1.6\",\"version\":1,"
+                    + "\"metadata\":{\"properties\":[{\"name\":\"gitUrl\",\"value\":\"x\"}]},"
+                    + "\"components\":["
+                    + component("aes", "src/Modified.java", "src/Unchanged.java")
+                    + ","
+                    + component("rsa", "src/Modified.java")
+                    + ","
+                    + component("sha", "src/Deleted.java")
+                    + ","
+                    + component("key")
+                    + ","
+                    + component("secret")
+                    + ","
+                    + component("mode")
+                    + "],\"dependencies\":["
+                    + "{\"ref\":\"aes\",\"dependsOn\":[\"mode\"]},"
+                    + "{\"ref\":\"rsa\",\"dependsOn\":[\"key\",\"mode\"]},"
+                    + "{\"ref\":\"key\",\"dependsOn\":[\"secret\"]}]}";
+
+    private static final Set<String> STALE_PATHS = Set.of("src/Modified.java", "src/Deleted.java");
+
+    private final IncrementalScanService incrementalScanService =
+            new IncrementalScanService(new File("."));
+
+    @Test
+    @DisplayName("Test that the occurrences in modified and deleted files are removed")
+    void testPruneRemovesStaleOccurrences() throws Exception {
+        final JsonNode pruned = prune();
+
+        final JsonNode aes = componentOf(pruned, "aes");
+        assertThat(aes).isNotNull();
+        assertThat(locationsOf(aes)).containsExactly("src/Unchanged.java");
+        assertThat(pruned.path("metadata").has("properties")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Test that components without remaining occurrences are dropped")
+    void testPruneDropsComponentsWithoutOccurrences() throws Exception {
+        final JsonNode pruned = prune();
+
+        assertThat(componentOf(pruned, "rsa")).isNull();
+        assertThat(componentOf(pruned, "sha")).isNull();
+        assertThat(dependencyOf(pruned, "rsa")).isNull();
+    }
+
+    @Test
+    @DisplayName("Test that components only reachable through dropped components are removed")
+    void testPruneRemovesOrphansTransitively() throws Exception {
+        final JsonNode pruned = prune();
+
+        assertThat(componentOf(pruned, "key")).isNull();
+        assertThat(componentOf(pruned, "secret")).isNull();
+        assertThat(dependencyOf(pruned, "key")).isNull();
+    }
+
+    @Test
+    @DisplayName("Test that components still referenced by remaining components are kept")
+    void testPruneKeepsReferencedComponents() throws Exception {
+        final JsonNode pruned = prune();
+
+        assertThat(componentOf(pruned, "mode")).isNotNull();
+        final JsonNode aesDependency = dependencyOf(pruned, "aes");
+        assertThat(aesDependency).isNotNull();
+        assertThat(textsOf(aesDependency.path("dependsOn"))).containsExactly("mode");
+    }
+
+    @Test
+    @DisplayName("Test that nothing is pruned without stale paths")
+    void testPruneWithoutStalePaths() throws Exception {
+        final JsonNode previous = new ObjectMapper().readTree(PREVIOUS_CBOM);
+        final JsonNode pruned =
+                this.incrementalScanService.prune(CBOM.formJSON(previous), Set.of()).toJSON();
+
+        assertThat(refsOf(pruned))
+                .containsExactlyInAnyOrder("aes", "rsa", "sha", "key", "secret", "mode");
+    }
+
+    @Test
+    @DisplayName("Test that the modified and deleted files are stale")
+    void testStalePaths() {
+        final ChangeSetDTO changeSet =
+                new ChangeSetDTO(Set.of("src/Modified.java"), Set.of("src/Deleted.java"));
+
+        assertThat(this.incrementalScanService.stalePaths(List.of(), changeSet))
+                .isEqualTo(STALE_PATHS);
+    }
+
+    @Nonnull
+    private JsonNode prune() throws Exception {
+        final JsonNode previous = new ObjectMapper().readTree(PREVIOUS_CBOM);
+        return this.incrementalScanService.prune(CBOM.formJSON(previous), STALE_PATHS).toJSON();
+    }
+
+    @Nonnull
+    private static String component(@Nonnull String ref, @Nonnull String... locations) {
+        final String occurrences =
+                String.join(
+                        ",",
+                        Arrays.stream(locations)
+                                .map(location -> "{\"location\":\"" + location + "\"}")
+                                .toList());
+        final String evidence =
+                locations.length == 0
+                        ? ""
+                        : ",\"evidence\":{\"occurrences\":[" + occurrences + "]}";
+        return "{\"type\":\"cryptographic-asset\",\"bom-ref\":\""
+                + ref
+                + "\",\"name\":\""
+                + ref
+                + "\",\"cryptoProperties\":{\"assetType\":\"algorithm\"}"
+                + evidence
+                + "}";
+    }
+
+    @Nullable private static JsonNode componentOf(@Nonnull JsonNode bom, @Nonnull String ref) {
+        return find(bom.path("components"), "bom-ref", ref);
+    }
+
+    @Nullable private static JsonNode dependencyOf(@Nonnull JsonNode bom, @Nonnull String ref) {
+        return find(bom.path("dependencies"), "ref", ref);
+    }
+
+    @Nullable private static JsonNode find(
+            @Nonnull JsonNode array, @Nonnull String field, @Nonnull String value) {
+        for (JsonNode element : array) {
+            if (value.equals(element.path(field).asText())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    @Nonnull
+    private static List<String> refsOf(@Nonnull JsonNode bom) {
+        final List<String> refs = new ArrayList<>();
+        bom.path("components").forEach(component -> refs.add(component.path("bom-ref").asText()));
+        return refs;
+    }
+
+    @Nonnull
+    private static List<String> locationsOf(@Nonnull JsonNode component) {
+        final List<String> locations = new ArrayList<>();
+        component
+                .path("evidence")
+                .path("occurrences")
+                .forEach(occurrence -> locations.add(occurrence.path("location").asText()));
+        return locations;
+    }
+
+    @Nonnull
+    private static List<String> textsOf(@Nonnull JsonNode array) {
+        final List<String> texts = new ArrayList<>();
+        array.forEach(element -> texts.add(element.asText()));
+        return texts;
+    }
+}